@@ -20,6 +20,22 @@ dependencies {
     implementation("org.apache.commons:commons-lang3:3.12.0")
 }
 
+val compileMonkeyTemplates by tasks.registering(JavaExec::class) {
+    description = "Compiles the html templates of the resources into the Monkey binary template format"
+    val templatesDir = file("src/main/resources")
+    val outputDir = layout.buildDirectory.dir("generated/resources/monkey")
+    inputs.dir(templatesDir)
+    outputs.dir(outputDir)
+    dependsOn(tasks.compileJava)
+    classpath = sourceSets.main.get().output.classesDirs + sourceSets.main.get().compileClasspath
+    mainClass.set("com.tecknobit.monkey.MonkeyTemplateCompiler")
+    args(templatesDir.absolutePath, outputDir.get().asFile.absolutePath)
+}
+
+sourceSets.main {
+    resources.srcDir(compileMonkeyTemplates)
+}
+
 afterEvaluate {
     publishing {
         publications {
@@ -0,0 +1,286 @@
+package com.tecknobit.monkey;
+
+import org.simplejavamail.api.email.Email;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code MonkeyAdaptiveConcurrencyTransport} class is useful to adapt the number of the sends in-flight to the
+ * capacity of the relay: the limit of the sends in-flight is increased additively while the sends are delivered with
+ * a latency near to the one of the relay without load, and it is decreased multiplicatively when the latency grows or
+ * a send fails (AIMD), at most once for each round trip, so the sends already in-flight when the limit is decreased
+ * do not decrease it again. The sends over the limit wait for a free slot and are rejected when no slot is freed in time
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyTransport
+ */
+public class MonkeyAdaptiveConcurrencyTransport implements MonkeyTransport {
+
+    /**
+     * {@code DEFAULT_INITIAL_LIMIT} the default initial limit of the sends in-flight
+     */
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+
+    /**
+     * {@code DEFAULT_MIN_LIMIT} the default min limit of the sends in-flight
+     */
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    /**
+     * {@code DEFAULT_MAX_LIMIT} the default max limit of the sends in-flight
+     */
+    public static final int DEFAULT_MAX_LIMIT = 64;
+
+    /**
+     * {@code DEFAULT_LATENCY_TOLERANCE} the default ratio between the latency of a send and the latency of the relay
+     * without load over which the limit is decreased
+     */
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2;
+
+    /**
+     * {@code DEFAULT_BACKOFF_RATIO} the default ratio applied to the limit when it is decreased
+     */
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    /**
+     * {@code DEFAULT_MAX_WAIT} the default max time, in milliseconds, a send waits for a free in-flight slot
+     */
+    public static final long DEFAULT_MAX_WAIT = 5000;
+
+    /**
+     * {@code BASELINE_DRIFT} the weight of a send slower than the latency of the relay without load, so that latency
+     * can follow the slow changes of the relay
+     */
+    private static final double BASELINE_DRIFT = 0.01;
+
+    /**
+     * {@code transport} the transport whose sends in-flight are limited
+     */
+    private final MonkeyTransport transport;
+
+    /**
+     * {@code minLimit} the min limit of the sends in-flight
+     */
+    private final int minLimit;
+
+    /**
+     * {@code maxLimit} the max limit of the sends in-flight
+     */
+    private final int maxLimit;
+
+    /**
+     * {@code latencyTolerance} the ratio between the latency of a send and the latency of the relay without load
+     * over which the limit is decreased
+     */
+    private final double latencyTolerance;
+
+    /**
+     * {@code backoffRatio} the ratio applied to the limit when it is decreased
+     */
+    private final double backoffRatio;
+
+    /**
+     * {@code maxWait} the max time, in milliseconds, a send waits for a free in-flight slot
+     */
+    private final long maxWait;
+
+    /**
+     * {@code rejectedSends} the number of the sends rejected
+     */
+    private final AtomicLong rejectedSends;
+
+    /**
+     * {@code limit} the current limit of the sends in-flight
+     */
+    private double limit;
+
+    /**
+     * {@code inFlightSends} the number of the sends in-flight
+     */
+    private int inFlightSends;
+
+    /**
+     * {@code baselineLatency} the estimated latency, in nanoseconds, of the relay without load, -1 if no send has
+     * been delivered yet
+     */
+    private double baselineLatency;
+
+    /**
+     * {@code lastBackoffTime} the time, in nanoseconds, when the limit has been decreased the last time, the sends
+     * started before it cannot decrease the limit again
+     */
+    private long lastBackoffTime;
+
+    /**
+     * Constructor to init the {@link MonkeyAdaptiveConcurrencyTransport} class with the default limits
+     *
+     * @param transport: the transport whose sends in-flight are limited
+     *
+     */
+    public MonkeyAdaptiveConcurrencyTransport(MonkeyTransport transport) {
+        this(transport, DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_LATENCY_TOLERANCE,
+                DEFAULT_BACKOFF_RATIO, DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyAdaptiveConcurrencyTransport} class
+     *
+     * @param transport: the transport whose sends in-flight are limited
+     * @param initialLimit: the initial limit of the sends in-flight
+     * @param minLimit: the min limit of the sends in-flight
+     * @param maxLimit: the max limit of the sends in-flight
+     * @param latencyTolerance: the ratio between the latency of a send and the latency of the relay without load
+     * over which the limit is decreased
+     * @param backoffRatio: the ratio applied to the limit when it is decreased
+     * @param maxWait: the max time, in milliseconds, a send waits for a free in-flight slot
+     *
+     * @throws IllegalArgumentException when a limit or a ratio is not valid
+     */
+    public MonkeyAdaptiveConcurrencyTransport(MonkeyTransport transport, int initialLimit, int minLimit, int maxLimit,
+                                              double latencyTolerance, double backoffRatio, long maxWait) {
+        if(minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("The limits must be positive and the initial limit between the min "
+                    + "and the max limits");
+        if(latencyTolerance <= 1)
+            throw new IllegalArgumentException("The latency tolerance must be greater than 1");
+        if(backoffRatio <= 0 || backoffRatio >= 1)
+            throw new IllegalArgumentException("The backoff ratio must be between 0 and 1");
+        if(maxWait < 0)
+            throw new IllegalArgumentException("The max wait cannot be negative");
+        this.transport = transport;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.maxWait = maxWait;
+        rejectedSends = new AtomicLong();
+        limit = initialLimit;
+        baselineLatency = -1;
+        lastBackoffTime = System.nanoTime();
+    }
+
+    /**
+     * Method to deliver a verification email within the current limit of the sends in-flight
+     *
+     * @param email: the email to deliver
+     * @throws MonkeySendRejectedException when no in-flight slot has been freed in time
+     */
+    @Override
+    public void send(Email email) {
+        acquireInFlightSlot();
+        long sendStart = System.nanoTime();
+        boolean delivered = false;
+        try {
+            transport.send(email);
+            delivered = true;
+        } finally {
+            releaseInFlightSlot(delivered, sendStart, System.nanoTime());
+        }
+    }
+
+    /**
+     * Method to acquire a slot for the send, waiting when the sends in-flight reached the current limit <br>
+     * No-any params required
+     *
+     * @throws MonkeySendRejectedException when no slot has been freed in time
+     */
+    private synchronized void acquireInFlightSlot() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+        while (inFlightSends >= (int) limit) {
+            long remainingWait = deadline - System.nanoTime();
+            if(remainingWait <= 0) {
+                rejectedSends.incrementAndGet();
+                throw new MonkeySendRejectedException("No in-flight slot has been freed in time, the send has been "
+                        + "shed");
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remainingWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejectedSends.incrementAndGet();
+                throw new MonkeySendRejectedException("Interrupted while waiting for an in-flight slot");
+            }
+        }
+        inFlightSends++;
+    }
+
+    /**
+     * Method to release the slot of a send and adapt the limit to its outcome
+     *
+     * @param delivered: whether the send has been delivered
+     * @param sendStart: the time, in nanoseconds, when the send started
+     * @param sendEnd: the time, in nanoseconds, when the send ended
+     */
+    private synchronized void releaseInFlightSlot(boolean delivered, long sendStart, long sendEnd) {
+        boolean limitReached = inFlightSends >= (int) limit;
+        inFlightSends--;
+        long latency = sendEnd - sendStart;
+        if(delivered) {
+            if(baselineLatency < 0 || latency < baselineLatency)
+                baselineLatency = latency;
+            else
+                baselineLatency += (latency - baselineLatency) * BASELINE_DRIFT;
+        }
+        if(!delivered || latency > baselineLatency * latencyTolerance) {
+            if(sendStart - lastBackoffTime >= 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastBackoffTime = sendEnd;
+            }
+        } else if(limitReached)
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        notifyAll();
+    }
+
+    /**
+     * Method to close the limited transport
+     *
+     * @param timeout: the time, in milliseconds, to wait for the resources to be released
+     */
+    @Override
+    public void close(long timeout) {
+        transport.close(timeout);
+    }
+
+    /**
+     * Method to get the current limit of the sends in-flight <br>
+     * No-any params required
+     *
+     * @return the current limit of the sends in-flight as int
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Method to get {@link #inFlightSends} instance <br>
+     * No-any params required
+     *
+     * @return {@link #inFlightSends} instance as int
+     */
+    public synchronized int getInFlightSends() {
+        return inFlightSends;
+    }
+
+    /**
+     * Method to get the estimated latency of the relay without load <br>
+     * No-any params required
+     *
+     * @return the estimated latency, in milliseconds, of the relay without load as double, -1 if no send has been
+     * delivered yet
+     */
+    public synchronized double getBaselineLatency() {
+        return baselineLatency < 0 ? -1 : baselineLatency / 1_000_000;
+    }
+
+    /**
+     * Method to get {@link #rejectedSends} instance <br>
+     * No-any params required
+     *
+     * @return {@link #rejectedSends} instance as long
+     */
+    public long getRejectedSends() {
+        return rejectedSends.get();
+    }
+
+}
@@ -0,0 +1,397 @@
+package com.tecknobit.monkey;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * The {@code MonkeyAuditLog} class is useful to record every verification code issued and every verification attempt
+ * without blocking the sends and the verifications: the records are published into a preallocated ring buffer and a
+ * background thread writes them in batches into a rotating append-only file. <br>
+ * When the ring buffer is full the records are dropped with the chosen {@link DropPolicy} and counted
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeyAuditLog implements AutoCloseable {
+
+    /**
+     * {@code AuditRecordType} list of available types of the records
+     */
+    public enum AuditRecordType {
+
+        /**
+         * {@code SEND} a verification code has been issued and its verification email sent
+         */
+        SEND,
+
+        /**
+         * {@code VERIFY} a verification attempt has been executed
+         */
+        VERIFY
+
+    }
+
+    /**
+     * {@code DropPolicy} list of available policies to drop the records when the ring buffer is full
+     */
+    public enum DropPolicy {
+
+        /**
+         * {@code DROP_NEWEST} the records published while the ring buffer is full are dropped
+         */
+        DROP_NEWEST,
+
+        /**
+         * {@code PRIORITIZE_VERIFICATIONS} a quarter of the ring buffer is reserved to the {@link AuditRecordType#VERIFY}
+         * records, so the {@link AuditRecordType#SEND} records are dropped first
+         */
+        PRIORITIZE_VERIFICATIONS
+
+    }
+
+    /**
+     * {@code DEFAULT_CAPACITY} the default number of the records of the ring buffer
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * {@code DEFAULT_MAX_FILE_SIZE} the default size, in bytes, after which the audit file is rotated
+     */
+    public static final long DEFAULT_MAX_FILE_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * {@code AUDIT_FILE} the name of the audit file currently written
+     */
+    public static final String AUDIT_FILE = "monkey_audit.log";
+
+    /**
+     * {@code MAX_BATCH_SIZE} the max number of the records written before flushing the audit file
+     */
+    private static final int MAX_BATCH_SIZE = 512;
+
+    /**
+     * {@code records} the preallocated records of the ring buffer
+     */
+    private final AuditRecord[] records;
+
+    /**
+     * {@code mask} the mask used to get the index of a sequence in the ring buffer
+     */
+    private final int mask;
+
+    /**
+     * {@code dropPolicy} the policy used to drop the records when the ring buffer is full
+     */
+    private final DropPolicy dropPolicy;
+
+    /**
+     * {@code directory} the directory where the audit files are written
+     */
+    private final Path directory;
+
+    /**
+     * {@code maxFileSize} the size, in bytes, after which the audit file is rotated
+     */
+    private final long maxFileSize;
+
+    /**
+     * {@code claimedSequence} the next sequence of the ring buffer to claim by the publishers
+     */
+    private final AtomicLong claimedSequence;
+
+    /**
+     * {@code consumedSequence} the next sequence of the ring buffer to consume by the writer
+     */
+    private final AtomicLong consumedSequence;
+
+    /**
+     * {@code droppedRecords} the number of the records dropped
+     */
+    private final AtomicLong droppedRecords;
+
+    /**
+     * {@code writer} the thread which writes the records into the audit file
+     */
+    private final Thread writer;
+
+    /**
+     * {@code auditFile} the stream of the audit file currently written
+     */
+    private BufferedOutputStream auditFile;
+
+    /**
+     * {@code auditFileSize} the size, in bytes, of the audit file currently written
+     */
+    private long auditFileSize;
+
+    /**
+     * {@code closed} whether the audit log has been closed
+     */
+    private volatile boolean closed;
+
+    /**
+     * {@code writerParked} whether the {@link #writer} is parked waiting for a record, so the publishers must wake it up
+     */
+    private volatile boolean writerParked;
+
+    /**
+     * Constructor to init the {@link MonkeyAuditLog} class with the {@link #DEFAULT_CAPACITY}, the
+     * {@link #DEFAULT_MAX_FILE_SIZE} and the {@link DropPolicy#DROP_NEWEST} policy
+     *
+     * @param directory: the directory where the audit files are written
+     *
+     * @throws IOException when an error occurred during the creation of the audit file
+     */
+    public MonkeyAuditLog(Path directory) throws IOException {
+        this(directory, DEFAULT_CAPACITY, DEFAULT_MAX_FILE_SIZE, DropPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyAuditLog} class
+     *
+     * @param directory: the directory where the audit files are written
+     * @param capacity: the number of the records of the ring buffer, it is rounded up to a power of two
+     * @param maxFileSize: the size, in bytes, after which the audit file is rotated
+     * @param dropPolicy: the policy used to drop the records when the ring buffer is full
+     *
+     * @throws IOException when an error occurred during the creation of the audit file
+     * @throws IllegalArgumentException when the capacity or the max size of the file are not positive
+     */
+    public MonkeyAuditLog(Path directory, int capacity, long maxFileSize, DropPolicy dropPolicy) throws IOException {
+        if(capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("The capacity must be between 1 and 2^30");
+        if(maxFileSize <= 0)
+            throw new IllegalArgumentException("The max size of the file must be greater than zero");
+        int ringSize = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        records = new AuditRecord[ringSize];
+        for (int j = 0; j < ringSize; j++)
+            records[j] = new AuditRecord();
+        mask = ringSize - 1;
+        this.dropPolicy = dropPolicy;
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        claimedSequence = new AtomicLong();
+        consumedSequence = new AtomicLong();
+        droppedRecords = new AtomicLong();
+        Files.createDirectories(directory);
+        openAuditFile();
+        writer = new Thread(this::writeRecords, "monkey-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Method to publish a record, it never blocks
+     *
+     * @param type: the type of the record
+     * @param email: the email of the recipient user
+     * @param outcome: the outcome of the operation recorded
+     *
+     * @return whether the record has been published as boolean, false if it has been dropped
+     */
+    public boolean publish(AuditRecordType type, String email, String outcome) {
+        int availableCapacity = records.length;
+        if(dropPolicy == DropPolicy.PRIORITIZE_VERIFICATIONS && type != AuditRecordType.VERIFY)
+            availableCapacity -= Math.max(records.length >> 2, 1);
+        long sequence;
+        do {
+            sequence = claimedSequence.get();
+            if(closed || sequence - consumedSequence.get() >= availableCapacity) {
+                droppedRecords.incrementAndGet();
+                return false;
+            }
+        } while (!claimedSequence.compareAndSet(sequence, sequence + 1));
+        AuditRecord record = records[(int) (sequence & mask)];
+        record.timestamp = System.currentTimeMillis();
+        record.type = type;
+        record.email = email;
+        record.outcome = outcome;
+        record.publishedSequence = sequence;
+        if(writerParked)
+            LockSupport.unpark(writer);
+        return true;
+    }
+
+    /**
+     * Method executed by the {@link #writer} to write the records published into the audit file <br>
+     * No-any params required
+     */
+    private void writeRecords() {
+        while (true) {
+            long sequence = consumedSequence.get();
+            int batchSize = 0;
+            AuditRecord record = records[(int) (sequence & mask)];
+            while (batchSize < MAX_BATCH_SIZE && record.publishedSequence == sequence) {
+                String line = Instant.ofEpochMilli(record.timestamp) + "\t" + record.type + "\t" + record.email
+                        + "\t" + record.outcome + "\n";
+                record.email = null;
+                consumedSequence.set(++sequence);
+                writeLine(line.getBytes(StandardCharsets.UTF_8));
+                batchSize++;
+                record = records[(int) (sequence & mask)];
+            }
+            if(batchSize > 0)
+                flushAuditFile();
+            else if(closed && claimedSequence.get() == sequence)
+                break;
+            else {
+                // the flag is set before checking the record again, so a record published meanwhile is not missed
+                writerParked = true;
+                if(record.publishedSequence != sequence && !closed)
+                    LockSupport.park(this);
+                writerParked = false;
+            }
+        }
+        try {
+            auditFile.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Method to write a line into the audit file, rotating it when its max size is reached
+     *
+     * @param line: the line to write encoded in UTF-8
+     */
+    private void writeLine(byte[] line) {
+        try {
+            if(auditFileSize >= maxFileSize)
+                rotateAuditFile();
+            auditFile.write(line);
+            auditFileSize += line.length;
+        } catch (IOException e) {
+            droppedRecords.incrementAndGet();
+        }
+    }
+
+    /**
+     * Method to flush the audit file <br>
+     * No-any params required
+     */
+    private void flushAuditFile() {
+        try {
+            auditFile.flush();
+        } catch (IOException ignored) {
+            // the records not flushed are retried with the next flush
+        }
+    }
+
+    /**
+     * Method to rotate the audit file, the current file is renamed with the timestamp of its rotation <br>
+     * No-any params required
+     *
+     * @throws IOException when an error occurred during the rotation of the audit file
+     */
+    private void rotateAuditFile() throws IOException {
+        auditFile.close();
+        String rotationTimestamp = String.valueOf(System.currentTimeMillis());
+        Path rotatedFile = directory.resolve("monkey_audit-" + rotationTimestamp + ".log");
+        for (int j = 1; Files.exists(rotatedFile); j++)
+            rotatedFile = directory.resolve("monkey_audit-" + rotationTimestamp + "-" + j + ".log");
+        try {
+            Files.move(directory.resolve(AUDIT_FILE), rotatedFile);
+        } finally {
+            openAuditFile();
+        }
+    }
+
+    /**
+     * Method to open the audit file in append mode <br>
+     * No-any params required
+     *
+     * @throws IOException when an error occurred during the opening of the audit file
+     */
+    private void openAuditFile() throws IOException {
+        Path auditPath = directory.resolve(AUDIT_FILE);
+        auditFile = new BufferedOutputStream(Files.newOutputStream(auditPath, CREATE, APPEND, WRITE));
+        auditFileSize = Files.size(auditPath);
+    }
+
+    /**
+     * Method to close the audit log, the records already published are written before the writer stops <br>
+     * No-any params required
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method to get the number of the records dropped <br>
+     * No-any params required
+     *
+     * @return the number of the records dropped as long
+     */
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    /**
+     * Method to get the number of the records published and not yet written <br>
+     * No-any params required
+     *
+     * @return the number of the records not yet written as long
+     */
+    public long getPendingRecords() {
+        return claimedSequence.get() - consumedSequence.get();
+    }
+
+    /**
+     * Method to get {@link #dropPolicy} instance <br>
+     * No-any params required
+     *
+     * @return {@link #dropPolicy} instance as {@link DropPolicy}
+     */
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    /**
+     * The {@code AuditRecord} class is useful to store a record of the ring buffer, the records are preallocated and
+     * reused
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class AuditRecord {
+
+        /**
+         * {@code publishedSequence} the sequence of the last publication of the record, written after its fields
+         */
+        private volatile long publishedSequence = -1;
+
+        /**
+         * {@code timestamp} the timestamp of the record
+         */
+        private long timestamp;
+
+        /**
+         * {@code type} the type of the record
+         */
+        private AuditRecordType type;
+
+        /**
+         * {@code email} the email of the recipient user
+         */
+        private String email;
+
+        /**
+         * {@code outcome} the outcome of the operation recorded
+         */
+        private String outcome;
+
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeyVerifier.EmailSent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.tecknobit.monkey.MonkeyBoundedCodesStore.EvictionPolicy.OLDEST_FIRST;
+
+/**
+ * The {@code MonkeyBoundedCodesStore} class is useful to store in memory a bounded number of verification emails sent:
+ * when the max number of the pending verifications is reached a verification email is evicted with the chosen
+ * {@link EvictionPolicy}, so the memory does not grow forever also with the {@link MonkeyVerifier.KeepEmailValid#ALWAYS_KEEP_VALID}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyCodesStore
+ * @apiNote each operation costs O(1), except the removal of the expired verification emails with the
+ * {@link EvictionPolicy#LEAST_RECENTLY_USED} policy which scans all the entries
+ */
+public class MonkeyBoundedCodesStore implements MonkeyCodesStore {
+
+    /**
+     * {@code EvictionPolicy} list of available policies to choose the verification email to evict
+     */
+    public enum EvictionPolicy {
+
+        /**
+         * {@code LEAST_RECENTLY_USED} the verification email sent or looked up less recently is evicted
+         */
+        LEAST_RECENTLY_USED,
+
+        /**
+         * {@code OLDEST_FIRST} the verification email with the oldest send timestamp is evicted
+         */
+        OLDEST_FIRST
+
+    }
+
+    /**
+     * {@code maxEntries} the max number of the verification emails stored
+     */
+    private final int maxEntries;
+
+    /**
+     * {@code evictionPolicy} the policy used to choose the verification email to evict
+     */
+    private final EvictionPolicy evictionPolicy;
+
+    /**
+     * {@code emailsSent} the verification emails sent indexed by the email of the recipient, ordered by the
+     * {@link #evictionPolicy}, so the head is the next verification email to evict
+     */
+    private final LinkedHashMap<String, EmailSent> emailsSent;
+
+    /**
+     * {@code evictedEntries} the number of the verification emails evicted
+     */
+    private final AtomicLong evictedEntries;
+
+    /**
+     * {@code evictionListener} the listener notified when a verification email is evicted
+     */
+    private volatile Consumer<EmailSent> evictionListener;
+
+    /**
+     * Constructor to init the {@link MonkeyBoundedCodesStore} class
+     *
+     * @param maxEntries: the max number of the verification emails stored
+     * @param evictionPolicy: the policy used to choose the verification email to evict
+     *
+     * @throws IllegalArgumentException when the max number of the verification emails is not positive
+     */
+    public MonkeyBoundedCodesStore(int maxEntries, EvictionPolicy evictionPolicy) {
+        if(maxEntries <= 0)
+            throw new IllegalArgumentException("The max number of the entries must be greater than zero");
+        this.maxEntries = maxEntries;
+        this.evictionPolicy = evictionPolicy;
+        emailsSent = new LinkedHashMap<>(16, 0.75f, evictionPolicy != OLDEST_FIRST);
+        evictedEntries = new AtomicLong();
+    }
+
+    /**
+     * Method to store a verification email sent, replacing the previous one sent to the same email
+     *
+     * @param emailSent: the verification email sent to store
+     * @return the verification email previously stored for the same email as {@link EmailSent}, null if not stored
+     * @apiNote when the max number of the verification emails is exceeded the head verification email is evicted
+     */
+    @Override
+    public EmailSent put(EmailSent emailSent) {
+        EmailSent previousEmailSent;
+        EmailSent evictedEmailSent = null;
+        synchronized (emailsSent) {
+            // removed first, so with the OLDEST_FIRST policy the entry is moved at the tail
+            previousEmailSent = emailsSent.remove(emailSent.getEmail());
+            emailsSent.put(emailSent.getEmail(), emailSent);
+            if(emailsSent.size() > maxEntries) {
+                Iterator<EmailSent> iterator = emailsSent.values().iterator();
+                evictedEmailSent = iterator.next();
+                iterator.remove();
+            }
+        }
+        if(evictedEmailSent != null) {
+            evictedEntries.incrementAndGet();
+            Consumer<EmailSent> evictionListener = this.evictionListener;
+            if(evictionListener != null)
+                evictionListener.accept(evictedEmailSent);
+        }
+        return previousEmailSent;
+    }
+
+    /**
+     * Method to get the verification email sent to an email
+     *
+     * @param email: the email of the recipient user
+     * @return the verification email sent as {@link EmailSent}, null if not stored
+     */
+    @Override
+    public EmailSent get(String email) {
+        synchronized (emailsSent) {
+            return emailsSent.get(email);
+        }
+    }
+
+    /**
+     * Method to remove the verification email sent to an email
+     *
+     * @param email: the email of the recipient user
+     * @return the verification email removed as {@link EmailSent}, null if not stored
+     */
+    @Override
+    public EmailSent remove(String email) {
+        synchronized (emailsSent) {
+            return emailsSent.remove(email);
+        }
+    }
+
+    /**
+     * Method to remove the verification emails sent before a timestamp
+     *
+     * @param expirationTimestamp: the timestamp before which, inclusive, the verification emails are expired
+     * @return the verification emails removed as {@link List} of {@link EmailSent}
+     * @apiNote with the {@link EvictionPolicy#OLDEST_FIRST} policy only the expired verification emails are scanned
+     */
+    @Override
+    public List<EmailSent> removeExpired(long expirationTimestamp) {
+        List<EmailSent> removedEmails = new ArrayList<>();
+        synchronized (emailsSent) {
+            for (Iterator<EmailSent> iterator = emailsSent.values().iterator(); iterator.hasNext(); ) {
+                EmailSent emailSent = iterator.next();
+                if(emailSent.getTimestamp() <= expirationTimestamp) {
+                    iterator.remove();
+                    removedEmails.add(emailSent);
+                } else if(evictionPolicy == OLDEST_FIRST)
+                    break;
+            }
+        }
+        return removedEmails;
+    }
+
+    /**
+     * Method to get the number of the verification emails stored <br>
+     * No-any params required
+     *
+     * @return the number of the verification emails stored as int
+     */
+    @Override
+    public int size() {
+        synchronized (emailsSent) {
+            return emailsSent.size();
+        }
+    }
+
+    /**
+     * Method to set the listener notified when a verification email is evicted
+     *
+     * @param evictionListener: the listener to notify, null to remove it
+     */
+    @Override
+    public void setEvictionListener(Consumer<EmailSent> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Method to get {@link #maxEntries} instance <br>
+     * No-any params required
+     *
+     * @return {@link #maxEntries} instance as int
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Method to get {@link #evictionPolicy} instance <br>
+     * No-any params required
+     *
+     * @return {@link #evictionPolicy} instance as {@link EvictionPolicy}
+     */
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Method to get the number of the verification emails evicted <br>
+     * No-any params required
+     *
+     * @return the number of the verification emails evicted as long
+     */
+    public long getEvictedEntries() {
+        return evictedEntries.get();
+    }
+
+}
@@ -0,0 +1,418 @@
+package com.tecknobit.monkey;
+
+import org.simplejavamail.api.email.Email;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.tecknobit.monkey.MonkeyCircuitBreakerTransport.CircuitState.*;
+
+/**
+ * The {@code MonkeyCircuitBreakerTransport} class is useful to protect the delivery of the verification emails when
+ * the relay is degraded: the circuit opens when the rate of the failed or slow sends exceeds a threshold and, while
+ * it is open, the sends fail fast. Moreover, when the sends in-flight exceed a limit the exceeding ones wait in a
+ * bounded queue and are rejected when it is full
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyTransport
+ */
+public class MonkeyCircuitBreakerTransport implements MonkeyTransport {
+
+    /**
+     * {@code CircuitState} list of available states of the circuit
+     */
+    public enum CircuitState {
+
+        /**
+         * {@code CLOSED} the sends are delivered normally
+         */
+        CLOSED,
+
+        /**
+         * {@code OPEN} the sends are rejected without contacting the relay
+         */
+        OPEN,
+
+        /**
+         * {@code HALF_OPEN} a limited number of probe sends is delivered to check whether the relay has recovered
+         */
+        HALF_OPEN
+
+    }
+
+    /**
+     * {@code DEFAULT_FAILURE_RATE_THRESHOLD} the default rate of the failed or slow sends which opens the circuit
+     */
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+
+    /**
+     * {@code DEFAULT_SLOW_SEND_DURATION} the default duration, in milliseconds, after which a send is considered slow
+     */
+    public static final long DEFAULT_SLOW_SEND_DURATION = 5000;
+
+    /**
+     * {@code DEFAULT_WINDOW_SIZE} the default number of the last sends used to compute the rates
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+
+    /**
+     * {@code DEFAULT_OPEN_DURATION} the default time, in milliseconds, the circuit stays open before the probes
+     */
+    public static final long DEFAULT_OPEN_DURATION = 30000;
+
+    /**
+     * {@code DEFAULT_MAX_IN_FLIGHT_SENDS} the default max number of the sends in-flight
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_SENDS = 16;
+
+    /**
+     * {@code DEFAULT_MAX_QUEUED_SENDS} the default max number of the sends waiting for a free in-flight slot
+     */
+    public static final int DEFAULT_MAX_QUEUED_SENDS = 64;
+
+    /**
+     * {@code HALF_OPEN_PROBES} the number of the successful probes required to close the circuit
+     */
+    private static final int HALF_OPEN_PROBES = 3;
+
+    /**
+     * {@code SUCCESSFUL_SEND} the outcome of a send delivered in time
+     */
+    private static final byte SUCCESSFUL_SEND = 0;
+
+    /**
+     * {@code FAILED_SEND} the outcome of a send failed
+     */
+    private static final byte FAILED_SEND = 1;
+
+    /**
+     * {@code SLOW_SEND} the outcome of a send delivered over the {@link #slowSendDuration}
+     */
+    private static final byte SLOW_SEND = 2;
+
+    /**
+     * {@code transport} the transport protected by the circuit breaker
+     */
+    private final MonkeyTransport transport;
+
+    /**
+     * {@code failureRateThreshold} the rate of the failed or slow sends which opens the circuit
+     */
+    private final double failureRateThreshold;
+
+    /**
+     * {@code slowSendDuration} the duration, in milliseconds, after which a send is considered slow
+     *
+     * @apiNote it is also the max time a send waits in the queue for a free in-flight slot
+     */
+    private final long slowSendDuration;
+
+    /**
+     * {@code openDuration} the time, in milliseconds, the circuit stays open before the probes
+     */
+    private final long openDuration;
+
+    /**
+     * {@code maxInFlightSends} the max number of the sends in-flight
+     */
+    private final int maxInFlightSends;
+
+    /**
+     * {@code maxQueuedSends} the max number of the sends waiting for a free in-flight slot
+     */
+    private final int maxQueuedSends;
+
+    /**
+     * {@code outcomesWindow} the ring of the outcomes of the last sends
+     */
+    private final byte[] outcomesWindow;
+
+    /**
+     * {@code inFlightSends} the slots available for the sends in-flight
+     */
+    private final Semaphore inFlightSends;
+
+    /**
+     * {@code queuedSends} the number of the sends waiting for a free in-flight slot
+     */
+    private final AtomicInteger queuedSends;
+
+    /**
+     * {@code rejectedSends} the number of the sends rejected
+     */
+    private final AtomicLong rejectedSends;
+
+    /**
+     * {@code state} the current state of the circuit
+     */
+    private volatile CircuitState state;
+
+    /**
+     * {@code openedAt} the timestamp when the circuit has been opened
+     */
+    private long openedAt;
+
+    /**
+     * {@code windowIndex} the index of the {@link #outcomesWindow} where store the next outcome
+     */
+    private int windowIndex;
+
+    /**
+     * {@code recordedOutcomes} the number of the outcomes stored in the {@link #outcomesWindow}
+     */
+    private int recordedOutcomes;
+
+    /**
+     * {@code probesInFlight} the number of the probes in-flight while the circuit is half-open
+     */
+    private int probesInFlight;
+
+    /**
+     * {@code successfulProbes} the number of the successful probes while the circuit is half-open
+     */
+    private int successfulProbes;
+
+    /**
+     * Constructor to init the {@link MonkeyCircuitBreakerTransport} class with the default thresholds
+     *
+     * @param transport: the transport protected by the circuit breaker
+     *
+     */
+    public MonkeyCircuitBreakerTransport(MonkeyTransport transport) {
+        this(transport, DEFAULT_FAILURE_RATE_THRESHOLD, DEFAULT_SLOW_SEND_DURATION, DEFAULT_WINDOW_SIZE,
+                DEFAULT_OPEN_DURATION, DEFAULT_MAX_IN_FLIGHT_SENDS, DEFAULT_MAX_QUEUED_SENDS);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyCircuitBreakerTransport} class
+     *
+     * @param transport: the transport protected by the circuit breaker
+     * @param failureRateThreshold: the rate of the failed or slow sends which opens the circuit
+     * @param slowSendDuration: the duration, in milliseconds, after which a send is considered slow
+     * @param windowSize: the number of the last sends used to compute the rates
+     * @param openDuration: the time, in milliseconds, the circuit stays open before the probes
+     * @param maxInFlightSends: the max number of the sends in-flight
+     * @param maxQueuedSends: the max number of the sends waiting for a free in-flight slot
+     *
+     * @throws IllegalArgumentException when a threshold is not valid
+     */
+    public MonkeyCircuitBreakerTransport(MonkeyTransport transport, double failureRateThreshold, long slowSendDuration,
+                                         int windowSize, long openDuration, int maxInFlightSends, int maxQueuedSends) {
+        if(failureRateThreshold <= 0 || failureRateThreshold > 1)
+            throw new IllegalArgumentException("The failure rate threshold must be between 0 and 1");
+        if(windowSize <= 0 || maxInFlightSends <= 0 || maxQueuedSends < 0)
+            throw new IllegalArgumentException("The window size and the limits of the sends must be positive");
+        this.transport = transport;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowSendDuration = slowSendDuration;
+        this.openDuration = openDuration;
+        this.maxInFlightSends = maxInFlightSends;
+        this.maxQueuedSends = maxQueuedSends;
+        outcomesWindow = new byte[windowSize];
+        inFlightSends = new Semaphore(maxInFlightSends);
+        queuedSends = new AtomicInteger();
+        rejectedSends = new AtomicLong();
+        state = CLOSED;
+    }
+
+    /**
+     * Method to deliver a verification email through the circuit breaker
+     *
+     * @param email: the email to deliver
+     * @throws MonkeySendRejectedException when the circuit is open or the queue of the sends is full
+     * @apiNote the state of the circuit is checked before waiting for an in-flight slot, so when the circuit is open
+     * the send fails fast
+     */
+    @Override
+    public void send(Email email) {
+        boolean probe = acquirePermission();
+        try {
+            acquireInFlightSlot();
+        } catch (MonkeySendRejectedException e) {
+            if(probe)
+                releaseProbe();
+            throw e;
+        }
+        try {
+            long sendStart = System.currentTimeMillis();
+            try {
+                transport.send(email);
+            } catch (RuntimeException e) {
+                recordOutcome(FAILED_SEND, probe);
+                throw e;
+            }
+            long sendDuration = System.currentTimeMillis() - sendStart;
+            recordOutcome(sendDuration >= slowSendDuration ? SLOW_SEND : SUCCESSFUL_SEND, probe);
+        } finally {
+            inFlightSends.release();
+        }
+    }
+
+    /**
+     * Method to acquire a slot for the send, waiting in the queue when all the slots are in use <br>
+     * No-any params required
+     *
+     * @throws MonkeySendRejectedException when the queue is full or no slot has been freed in time
+     */
+    private void acquireInFlightSlot() {
+        if(inFlightSends.tryAcquire())
+            return;
+        if(queuedSends.incrementAndGet() > maxQueuedSends) {
+            queuedSends.decrementAndGet();
+            throw reject("Too many sends in-flight, the send has been shed");
+        }
+        try {
+            if(!inFlightSends.tryAcquire(slowSendDuration, TimeUnit.MILLISECONDS))
+                throw reject("No in-flight slot has been freed in time, the send has been shed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("Interrupted while waiting for an in-flight slot");
+        } finally {
+            queuedSends.decrementAndGet();
+        }
+    }
+
+    /**
+     * Method to check whether the circuit allows the send <br>
+     * No-any params required
+     *
+     * @return whether the send is a probe of the half-open circuit as boolean
+     * @throws MonkeySendRejectedException when the circuit is open
+     */
+    private synchronized boolean acquirePermission() {
+        if(state == OPEN) {
+            if(System.currentTimeMillis() - openedAt < openDuration)
+                throw reject("The circuit is open, the relay is degraded");
+            state = HALF_OPEN;
+            probesInFlight = 0;
+            successfulProbes = 0;
+        }
+        if(state == HALF_OPEN) {
+            if(probesInFlight >= HALF_OPEN_PROBES)
+                throw reject("The circuit is half-open and the probes are already in-flight");
+            probesInFlight++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method to release the permission of a probe which has not been sent <br>
+     * No-any params required
+     */
+    private synchronized void releaseProbe() {
+        if(state == HALF_OPEN)
+            probesInFlight--;
+    }
+
+    /**
+     * Method to record the outcome of a send and update the state of the circuit
+     *
+     * @param outcome: the outcome of the send
+     * @param probe: whether the send is a probe of the half-open circuit
+     */
+    private synchronized void recordOutcome(byte outcome, boolean probe) {
+        if(probe) {
+            if(state != HALF_OPEN)
+                return;
+            probesInFlight--;
+            if(outcome == SUCCESSFUL_SEND) {
+                if(++successfulProbes >= HALF_OPEN_PROBES) {
+                    state = CLOSED;
+                    windowIndex = 0;
+                    recordedOutcomes = 0;
+                }
+            } else
+                open();
+            return;
+        }
+        if(state != CLOSED)
+            return;
+        outcomesWindow[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % outcomesWindow.length;
+        if(recordedOutcomes < outcomesWindow.length)
+            recordedOutcomes++;
+        if(recordedOutcomes == outcomesWindow.length) {
+            int failedOrSlowSends = 0;
+            for (byte recordedOutcome : outcomesWindow)
+                if(recordedOutcome != SUCCESSFUL_SEND)
+                    failedOrSlowSends++;
+            if(failedOrSlowSends >= failureRateThreshold * recordedOutcomes)
+                open();
+        }
+    }
+
+    /**
+     * Method to open the circuit <br>
+     * No-any params required
+     */
+    private void open() {
+        state = OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Method to create the exception of a send rejected
+     *
+     * @param message: the reason of the rejection
+     * @return the exception as {@link MonkeySendRejectedException}
+     */
+    private MonkeySendRejectedException reject(String message) {
+        rejectedSends.incrementAndGet();
+        return new MonkeySendRejectedException(message);
+    }
+
+    /**
+     * Method to close the protected transport
+     *
+     * @param timeout: the time, in milliseconds, to wait for the resources to be released
+     */
+    @Override
+    public void close(long timeout) {
+        transport.close(timeout);
+    }
+
+    /**
+     * Method to get {@link #state} instance <br>
+     * No-any params required
+     *
+     * @return {@link #state} instance as {@link CircuitState}
+     * @apiNote an open circuit moves to half-open only when a send is attempted after the {@link #openDuration}
+     */
+    public CircuitState getState() {
+        return state;
+    }
+
+    /**
+     * Method to get the number of the sends in-flight <br>
+     * No-any params required
+     *
+     * @return the number of the sends in-flight as int
+     */
+    public int getInFlightSends() {
+        return maxInFlightSends - inFlightSends.availablePermits();
+    }
+
+    /**
+     * Method to get {@link #queuedSends} instance <br>
+     * No-any params required
+     *
+     * @return {@link #queuedSends} instance as int
+     */
+    public int getQueuedSends() {
+        return queuedSends.get();
+    }
+
+    /**
+     * Method to get {@link #rejectedSends} instance <br>
+     * No-any params required
+     *
+     * @return {@link #rejectedSends} instance as long
+     */
+    public long getRejectedSends() {
+        return rejectedSends.get();
+    }
+
+}
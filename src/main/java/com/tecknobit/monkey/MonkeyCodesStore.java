@@ -0,0 +1,68 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeyVerifier.EmailSent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The {@code MonkeyCodesStore} interface is useful to store the verification emails sent which are waiting for their
+ * verification, so the pending verification codes can be kept in memory or in a remote or persistent store
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyMemoryCodesStore
+ * @see MonkeyBoundedCodesStore
+ */
+public interface MonkeyCodesStore {
+
+    /**
+     * Method to store a verification email sent, replacing the previous one sent to the same email
+     *
+     * @param emailSent: the verification email sent to store
+     * @return the verification email previously stored for the same email as {@link EmailSent}, null if not stored
+     */
+    EmailSent put(EmailSent emailSent);
+
+    /**
+     * Method to get the verification email sent to an email
+     *
+     * @param email: the email of the recipient user
+     * @return the verification email sent as {@link EmailSent}, null if not stored
+     */
+    EmailSent get(String email);
+
+    /**
+     * Method to remove the verification email sent to an email
+     *
+     * @param email: the email of the recipient user
+     * @return the verification email removed as {@link EmailSent}, null if not stored
+     */
+    EmailSent remove(String email);
+
+    /**
+     * Method to remove the verification emails sent before a timestamp
+     *
+     * @param expirationTimestamp: the timestamp before which, inclusive, the verification emails are expired
+     * @return the verification emails removed as {@link List} of {@link EmailSent}
+     */
+    List<EmailSent> removeExpired(long expirationTimestamp);
+
+    /**
+     * Method to get the number of the verification emails stored <br>
+     * No-any params required
+     *
+     * @return the number of the verification emails stored as int
+     */
+    int size();
+
+    /**
+     * Method to set the listener notified when a verification email is evicted by the store before its verification
+     * or its expiration
+     *
+     * @param evictionListener: the listener to notify, null to remove it
+     * @apiNote the stores which never evict can ignore the listener
+     */
+    default void setEvictionListener(Consumer<EmailSent> evictionListener) {
+    }
+
+}
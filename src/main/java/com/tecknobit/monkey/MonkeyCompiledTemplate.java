@@ -0,0 +1,713 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeyTemplate.MonkeyTemplateTag;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code MonkeyCompiledTemplate} class is useful to parse a template once into its static segments and the slots
+ * of its tags, so each verification email is rendered in a single pass without scanning the whole template again
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyTemplateTag
+ */
+public class MonkeyCompiledTemplate {
+
+    /**
+     * {@code COMPILED_TEMPLATE_EXTENSION} the extension of the files which contain a compiled template
+     */
+    public static final String COMPILED_TEMPLATE_EXTENSION = ".mkt";
+
+    /**
+     * {@code MAGIC_NUMBER} the magic number which identifies the binary form of a compiled template
+     */
+    private static final int MAGIC_NUMBER = 0x4D4B5401;
+
+    /**
+     * {@code KNOWN_TAGS} the values of the tags recognized in the templates
+     */
+    private static final String[] KNOWN_TAGS;
+
+    static {
+        MonkeyTemplateTag[] tags = MonkeyTemplateTag.values();
+        KNOWN_TAGS = new String[tags.length];
+        for (int j = 0; j < tags.length; j++)
+            KNOWN_TAGS[j] = tags[j].getValue();
+    }
+
+    /**
+     * {@code segments} the static segments of the template, a segment precedes each slot and the last one closes the
+     * template
+     */
+    private final String[] segments;
+
+    /**
+     * {@code slots} the values of the tags to fill in the template
+     */
+    private final String[] slots;
+
+    /**
+     * {@code textRendition} the plain text rendition of the static segments, created the first time it is used
+     */
+    private volatile TextRendition textRendition;
+
+    /**
+     * Constructor to init the {@link MonkeyCompiledTemplate} class
+     *
+     * @param segments: the static segments of the template
+     * @param slots: the values of the tags to fill in the template
+     *
+     */
+    private MonkeyCompiledTemplate(String[] segments, String[] slots) {
+        this.segments = segments;
+        this.slots = slots;
+    }
+
+    /**
+     * Method to compile a template recognizing the tags of the {@link MonkeyTemplateTag}
+     *
+     * @param content: the content of the template to compile
+     * @return the template compiled as {@link MonkeyCompiledTemplate}
+     */
+    public static MonkeyCompiledTemplate compile(String content) {
+        return compile(content, Set.of());
+    }
+
+    /**
+     * Method to compile a template recognizing the tags of the {@link MonkeyTemplateTag} and some user-defined
+     * variables, e.g. the <b>user_name</b> variable is recognized as the <b>&lt;user_name&gt;</b> tag
+     *
+     * @param content: the content of the template to compile
+     * @param variables: the names of the user-defined variables to recognize
+     * @return the template compiled as {@link MonkeyCompiledTemplate}
+     * @throws IllegalArgumentException when the name of a variable is empty or contains the <b>&lt;</b> or the
+     * <b>&gt;</b> characters
+     */
+    public static MonkeyCompiledTemplate compile(String content, Set<String> variables) {
+        String[] tags = KNOWN_TAGS;
+        if(!variables.isEmpty()) {
+            for (String variable : variables)
+                if(variable.isEmpty() || variable.indexOf('<') != -1 || variable.indexOf('>') != -1)
+                    throw new IllegalArgumentException("Invalid variable name: " + variable);
+            tags = Arrays.copyOf(KNOWN_TAGS, KNOWN_TAGS.length + variables.size());
+            int j = KNOWN_TAGS.length;
+            for (String variable : variables)
+                tags[j++] = variable;
+        }
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int segmentStart = 0;
+        int tagStart = content.indexOf('<');
+        while (tagStart != -1) {
+            int tagEnd = content.indexOf('>', tagStart);
+            if(tagEnd == -1)
+                break;
+            String tag = findTag(tags, content, tagStart + 1, tagEnd);
+            if(tag != null) {
+                segments.add(content.substring(segmentStart, tagStart));
+                slots.add(tag);
+                segmentStart = tagEnd + 1;
+                tagStart = content.indexOf('<', segmentStart);
+            } else
+                tagStart = content.indexOf('<', tagStart + 1);
+        }
+        segments.add(content.substring(segmentStart));
+        return new MonkeyCompiledTemplate(segments.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    /**
+     * Method to find the tag placed between the bounds specified
+     *
+     * @param tags: the values of the tags to recognize
+     * @param content: the content of the template
+     * @param start: the index where the name of the tag starts
+     * @param end: the index where the name of the tag ends
+     * @return the value of the tag as {@link String}, null if it is not a known tag
+     */
+    private static String findTag(String[] tags, String content, int start, int end) {
+        for (String tag : tags)
+            if(tag.length() == end - start && content.startsWith(tag, start))
+                return tag;
+        return null;
+    }
+
+    /**
+     * Method to render the template filling its slots
+     *
+     * @param values: the values of the tags to fill, the keys are the values of the tags
+     * @return the template rendered as {@link String}
+     * @apiNote the slots without a value are rendered as their original tag
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder renderedTemplate = new StringBuilder(estimateLength());
+        for (int j = 0; j < slots.length; j++) {
+            renderedTemplate.append(segments[j]);
+            String value = values.get(slots[j]);
+            if(value != null)
+                renderedTemplate.append(value);
+            else
+                renderedTemplate.append('<').append(slots[j]).append('>');
+        }
+        return renderedTemplate.append(segments[slots.length]).toString();
+    }
+
+    /**
+     * Method to render in a single pass both the HTML content and its plain text alternative filling the slots of the
+     * template
+     *
+     * @param values: the values of the tags to fill, the keys are the values of the tags
+     * @return the template rendered as {@link MonkeyRendition}
+     * @apiNote the plain text rendition of the static segments is created once and cached, for each message only the
+     * values of the slots are converted
+     */
+    public MonkeyRendition renderAlternatives(Map<String, String> values) {
+        return renderAlternatives(values, Map.of());
+    }
+
+    /**
+     * Method to render in a single pass both the HTML content and its plain text alternative filling the slots of the
+     * template with some HTML values and some user-defined variables
+     *
+     * @param values: the HTML values of the tags to fill, the keys are the values of the tags
+     * @param variables: the plain text values of the user-defined variables, the keys are the names of the variables
+     * @return the template rendered as {@link MonkeyRendition}
+     * @apiNote the values of the variables are escaped in the HTML content and written as they are in the plain text
+     * alternative, so a value provided by a user cannot inject markup; when a slot has both an HTML value and a
+     * variable the HTML value is used
+     */
+    public MonkeyRendition renderAlternatives(Map<String, String> values, Map<String, String> variables) {
+        TextRendition textRendition = getTextRendition();
+        StringBuilder html = new StringBuilder(estimateLength());
+        StringBuilder text = new StringBuilder(textRendition.length + slots.length * 16);
+        for (int j = 0; j < slots.length; j++) {
+            html.append(segments[j]);
+            text.append(textRendition.segments[j]);
+            String value = values.get(slots[j]);
+            String variable = value == null ? variables.get(slots[j]) : null;
+            if(variable != null) {
+                appendEscaped(html, variable);
+                if(textRendition.visibleSlots[j])
+                    text.append(variable);
+                continue;
+            }
+            if(value == null)
+                value = "<" + slots[j] + ">";
+            html.append(value);
+            if(textRendition.visibleSlots[j])
+                text.append(HtmlTextConverter.toText(value));
+        }
+        html.append(segments[slots.length]);
+        text.append(textRendition.segments[slots.length]);
+        return new MonkeyRendition(html.toString(), text.toString());
+    }
+
+    /**
+     * Method to append a plain text value to an HTML content escaping its special characters
+     *
+     * @param html: the builder of the HTML content
+     * @param value: the value to append
+     */
+    private static void appendEscaped(StringBuilder html, String value) {
+        for (int j = 0; j < value.length(); j++) {
+            char character = value.charAt(j);
+            switch (character) {
+                case '&' -> html.append("&amp;");
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '"' -> html.append("&quot;");
+                case '\'' -> html.append("&#39;");
+                default -> html.append(character);
+            }
+        }
+    }
+
+    /**
+     * Method to get the plain text rendition of the static segments, creating it the first time <br>
+     * No-any params required
+     *
+     * @return the plain text rendition as {@link TextRendition}
+     */
+    private TextRendition getTextRendition() {
+        TextRendition textRendition = this.textRendition;
+        if(textRendition == null) {
+            HtmlTextConverter converter = new HtmlTextConverter();
+            String[] textSegments = new String[segments.length];
+            boolean[] visibleSlots = new boolean[slots.length];
+            int length = 0;
+            for (int j = 0; j < segments.length; j++) {
+                StringBuilder textSegment = new StringBuilder();
+                converter.convert(segments[j], textSegment);
+                if(j < slots.length)
+                    visibleSlots[j] = converter.openSlot(textSegment);
+                textSegments[j] = textSegment.toString();
+                length += textSegments[j].length();
+            }
+            textRendition = new TextRendition(textSegments, visibleSlots, length);
+            this.textRendition = textRendition;
+        }
+        return textRendition;
+    }
+
+    /**
+     * Method to bind some values to the template, the slots of those values are merged into the static segments
+     *
+     * @param values: the values of the tags to bind, the keys are the values of the tags
+     * @return the template with the values bound as {@link MonkeyCompiledTemplate}
+     * @apiNote the slots without a value are kept, so the template can be rendered later
+     */
+    public MonkeyCompiledTemplate bind(Map<String, String> values) {
+        List<String> boundSegments = new ArrayList<>();
+        List<String> boundSlots = new ArrayList<>();
+        StringBuilder segment = new StringBuilder(segments[0]);
+        for (int j = 0; j < slots.length; j++) {
+            String value = values.get(slots[j]);
+            if(value != null)
+                segment.append(value);
+            else {
+                boundSegments.add(segment.toString());
+                boundSlots.add(slots[j]);
+                segment.setLength(0);
+            }
+            segment.append(segments[j + 1]);
+        }
+        boundSegments.add(segment.toString());
+        return new MonkeyCompiledTemplate(boundSegments.toArray(new String[0]), boundSlots.toArray(new String[0]));
+    }
+
+    /**
+     * Method to estimate the length of the rendered template <br>
+     * No-any params required
+     *
+     * @return the length estimated as int
+     */
+    private int estimateLength() {
+        int length = slots.length * 16;
+        for (String segment : segments)
+            length += segment.length();
+        return length;
+    }
+
+    /**
+     * Method to check whether the template contains a tag
+     *
+     * @param tag: the tag to check
+     * @return whether the template contains the tag as boolean
+     */
+    public boolean hasTag(MonkeyTemplateTag tag) {
+        return hasTag(tag.getValue());
+    }
+
+    /**
+     * Method to check whether the template contains a tag
+     *
+     * @param tag: the value of the tag to check
+     * @return whether the template contains the tag as boolean
+     */
+    public boolean hasTag(String tag) {
+        for (String slot : slots)
+            if(slot.equals(tag))
+                return true;
+        return false;
+    }
+
+    /**
+     * Method to write the template in its compact binary form
+     *
+     * @param outputStream: the stream where write the template
+     *
+     * @throws IOException when an error occurred during the writing
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC_NUMBER);
+        output.writeInt(slots.length);
+        for (int j = 0; j < slots.length; j++) {
+            writeString(output, segments[j]);
+            writeString(output, slots[j]);
+        }
+        writeString(output, segments[slots.length]);
+        output.flush();
+    }
+
+    /**
+     * Method to read a template from its compact binary form
+     *
+     * @param inputStream: the stream where read the template
+     * @return the template read as {@link MonkeyCompiledTemplate}
+     * @throws IOException when an error occurred during the reading or the stream does not contain a compiled template
+     */
+    public static MonkeyCompiledTemplate readFrom(InputStream inputStream) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        if(input.readInt() != MAGIC_NUMBER)
+            throw new IOException("The stream does not contain a compiled template");
+        int slotsNumber = input.readInt();
+        String[] segments = new String[slotsNumber + 1];
+        String[] slots = new String[slotsNumber];
+        for (int j = 0; j < slotsNumber; j++) {
+            segments[j] = readString(input);
+            slots[j] = readString(input);
+        }
+        segments[slotsNumber] = readString(input);
+        return new MonkeyCompiledTemplate(segments, slots);
+    }
+
+    /**
+     * Method to write a string prefixed by its length
+     *
+     * @param output: the stream where write the string
+     * @param value: the string to write
+     *
+     * @throws IOException when an error occurred during the writing
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Method to read a string prefixed by its length
+     *
+     * @param input: the stream where read the string
+     * @return the string read as {@link String}
+     * @throws IOException when an error occurred during the reading
+     */
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to get {@link #slots} instance <br>
+     * No-any params required
+     *
+     * @return {@link #slots} instance as {@link List} of {@link String}
+     */
+    public List<String> getSlots() {
+        return Arrays.asList(slots.clone());
+    }
+
+    /**
+     * The {@code MonkeyRendition} class is useful to store the HTML content of a template rendered and its plain text
+     * alternative
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public static class MonkeyRendition {
+
+        /**
+         * {@code html} the HTML content rendered
+         */
+        private final String html;
+
+        /**
+         * {@code text} the plain text alternative rendered
+         */
+        private final String text;
+
+        /**
+         * Constructor to init the {@link MonkeyRendition} class
+         *
+         * @param html: the HTML content rendered
+         * @param text: the plain text alternative rendered
+         *
+         */
+        public MonkeyRendition(String html, String text) {
+            this.html = html;
+            this.text = text;
+        }
+
+        /**
+         * Method to get {@link #html} instance <br>
+         * No-any params required
+         *
+         * @return {@link #html} instance as {@link String}
+         */
+        public String getHtml() {
+            return html;
+        }
+
+        /**
+         * Method to get {@link #text} instance <br>
+         * No-any params required
+         *
+         * @return {@link #text} instance as {@link String}
+         */
+        public String getText() {
+            return text;
+        }
+
+    }
+
+    /**
+     * The {@code TextRendition} class is useful to store the plain text rendition of the static segments of a template
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class TextRendition {
+
+        /**
+         * {@code segments} the plain text rendition of each static segment
+         */
+        private final String[] segments;
+
+        /**
+         * {@code visibleSlots} whether the value of each slot is part of the plain text, e.g. a slot placed in the
+         * attribute of an HTML tag is not
+         */
+        private final boolean[] visibleSlots;
+
+        /**
+         * {@code length} the total length of the static segments rendered
+         */
+        private final int length;
+
+        /**
+         * Constructor to init the {@link TextRendition} class
+         *
+         * @param segments: the plain text rendition of each static segment
+         * @param visibleSlots: whether the value of each slot is part of the plain text
+         * @param length: the total length of the static segments rendered
+         *
+         */
+        private TextRendition(String[] segments, boolean[] visibleSlots, int length) {
+            this.segments = segments;
+            this.visibleSlots = visibleSlots;
+            this.length = length;
+        }
+
+    }
+
+    /**
+     * The {@code HtmlTextConverter} class is useful to convert HTML content into plain text, its state is kept between
+     * the conversions, so a template can be converted segment by segment
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class HtmlTextConverter {
+
+        /**
+         * {@code SKIPPED_TAGS} the tags whose content is not part of the plain text
+         */
+        private static final Set<String> SKIPPED_TAGS = Set.of("head", "style", "script", "title");
+
+        /**
+         * {@code PARAGRAPH_TAGS} the tags which are separated by a blank line
+         */
+        private static final Set<String> PARAGRAPH_TAGS = Set.of("p", "h1", "h2", "h3", "h4", "h5", "h6", "table");
+
+        /**
+         * {@code LINE_TAGS} the tags which are placed on their own line
+         */
+        private static final Set<String> LINE_TAGS = Set.of("br", "div", "tr", "li", "ul", "ol", "hr", "center");
+
+        /**
+         * {@code tagName} the name of the tag currently parsed
+         */
+        private final StringBuilder tagName = new StringBuilder();
+
+        /**
+         * {@code inTag} whether an HTML tag is currently parsed
+         */
+        private boolean inTag;
+
+        /**
+         * {@code readingTagName} whether the name of the tag is currently parsed
+         */
+        private boolean readingTagName;
+
+        /**
+         * {@code inComment} whether an HTML comment is currently parsed
+         */
+        private boolean inComment;
+
+        /**
+         * {@code skipDepth} the depth of the {@link #SKIPPED_TAGS} currently open
+         */
+        private int skipDepth;
+
+        /**
+         * {@code pendingSpace} whether a space must precede the next text
+         */
+        private boolean pendingSpace;
+
+        /**
+         * {@code pendingNewlines} the number of the newlines which must precede the next text
+         */
+        private int pendingNewlines;
+
+        /**
+         * {@code textWritten} whether any text has been written
+         */
+        private boolean textWritten;
+
+        /**
+         * Method to convert an HTML value into plain text
+         *
+         * @param html: the HTML value to convert
+         * @return the value converted as {@link String}
+         */
+        private static String toText(String html) {
+            if(html.indexOf('<') == -1 && html.indexOf('&') == -1)
+                return html;
+            StringBuilder text = new StringBuilder(html.length());
+            new HtmlTextConverter().convert(html, text);
+            return text.toString();
+        }
+
+        /**
+         * Method to convert HTML content into plain text
+         *
+         * @param html: the HTML content to convert
+         * @param text: the builder where append the plain text
+         */
+        private void convert(String html, StringBuilder text) {
+            int length = html.length();
+            for (int j = 0; j < length; j++) {
+                char character = html.charAt(j);
+                if(inComment) {
+                    if(character == '>' && j >= 2 && html.startsWith("--", j - 2))
+                        inComment = false;
+                } else if(inTag) {
+                    if(character == '>')
+                        closeTag();
+                    else if(readingTagName) {
+                        if(Character.isWhitespace(character) || (character == '/' && tagName.length() > 1))
+                            readingTagName = false;
+                        else
+                            tagName.append(Character.toLowerCase(character));
+                    }
+                } else if(character == '<') {
+                    if(html.startsWith("<!--", j)) {
+                        inComment = true;
+                        j += 3;
+                    } else {
+                        inTag = true;
+                        readingTagName = true;
+                        tagName.setLength(0);
+                    }
+                } else if(skipDepth == 0) {
+                    if(Character.isWhitespace(character))
+                        pendingSpace = true;
+                    else if(character == '&') {
+                        int entityEnd = html.indexOf(';', j);
+                        String entity = entityEnd != -1 && entityEnd - j <= 8 ? html.substring(j + 1, entityEnd) : null;
+                        String decodedEntity = entity != null ? decodeEntity(entity) : null;
+                        if(decodedEntity != null) {
+                            if(decodedEntity.equals(" "))
+                                pendingSpace = true;
+                            else
+                                write(text, decodedEntity);
+                            j = entityEnd;
+                        } else
+                            write(text, "&");
+                    } else
+                        write(text, String.valueOf(character));
+                }
+            }
+        }
+
+        /**
+         * Method to apply the effects of the tag just closed <br>
+         * No-any params required
+         */
+        private void closeTag() {
+            inTag = false;
+            readingTagName = false;
+            boolean closing = tagName.length() > 0 && tagName.charAt(0) == '/';
+            String name = closing ? tagName.substring(1) : tagName.toString();
+            if(SKIPPED_TAGS.contains(name)) {
+                if(closing)
+                    skipDepth = Math.max(skipDepth - 1, 0);
+                else
+                    skipDepth++;
+            } else if(PARAGRAPH_TAGS.contains(name))
+                pendingNewlines = 2;
+            else if(LINE_TAGS.contains(name))
+                pendingNewlines = Math.max(pendingNewlines, 1);
+            else if(name.equals("td") || name.equals("th"))
+                pendingSpace = true;
+        }
+
+        /**
+         * Method to write some text preceded by the pending separators
+         *
+         * @param text: the builder where append the text
+         * @param value: the text to write
+         */
+        private void write(StringBuilder text, String value) {
+            if(textWritten) {
+                if(pendingNewlines > 0)
+                    text.append("\n".repeat(pendingNewlines));
+                else if(pendingSpace)
+                    text.append(' ');
+            }
+            text.append(value);
+            textWritten = true;
+            pendingSpace = false;
+            pendingNewlines = 0;
+        }
+
+        /**
+         * Method to open a slot of the template, when the slot is part of the plain text its pending separators are
+         * written
+         *
+         * @param text: the builder where append the pending separators
+         * @return whether the slot is part of the plain text as boolean
+         */
+        private boolean openSlot(StringBuilder text) {
+            if(inTag || inComment || skipDepth > 0)
+                return false;
+            write(text, "");
+            return true;
+        }
+
+        /**
+         * Method to decode an HTML entity
+         *
+         * @param entity: the entity to decode without the <b>&</b> and <b>;</b> characters
+         * @return the entity decoded as {@link String}, null if the entity is not known
+         */
+        private static String decodeEntity(String entity) {
+            switch (entity) {
+                case "nbsp" -> {
+                    return " ";
+                }
+                case "amp" -> {
+                    return "&";
+                }
+                case "lt" -> {
+                    return "<";
+                }
+                case "gt" -> {
+                    return ">";
+                }
+                case "quot" -> {
+                    return "\"";
+                }
+                case "apos" -> {
+                    return "'";
+                }
+            }
+            if(entity.startsWith("#")) {
+                try {
+                    int codePoint = entity.startsWith("#x") || entity.startsWith("#X")
+                            ? Integer.parseInt(entity.substring(2), 16) : Integer.parseInt(entity.substring(1));
+                    return new String(Character.toChars(codePoint));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
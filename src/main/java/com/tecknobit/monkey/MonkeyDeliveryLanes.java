@@ -0,0 +1,194 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeyVerifier.SendPriority;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.tecknobit.monkey.MonkeyVerifier.SendPriority.INTERACTIVE;
+
+/**
+ * The {@code MonkeyDeliveryLanes} class is useful to schedule the deliveries of the workers with a separate queue for
+ * each {@link SendPriority}: the lanes are dispatched with a smooth weighted round-robin and the non-interactive lanes
+ * cannot occupy all the workers, so a bulk campaign never delays the interactive sends
+ *
+ * @param <T> the type of the deliveries scheduled
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class MonkeyDeliveryLanes<T> {
+
+    /**
+     * {@code lanes} the queues of the deliveries for each priority
+     */
+    private final ArrayDeque<T>[] lanes;
+
+    /**
+     * {@code currentWeights} the current weights of the lanes used by the smooth weighted round-robin
+     */
+    private final int[] currentWeights;
+
+    /**
+     * {@code maxNonInteractiveDeliveries} the max number of the non-interactive deliveries executed at the same time,
+     * so at least a worker is always available for the {@link SendPriority#INTERACTIVE} lane
+     */
+    private final int maxNonInteractiveDeliveries;
+
+    /**
+     * {@code lock} the lock used to access the lanes
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * {@code deliveryAvailable} the condition signaled when a delivery could be dispatched
+     */
+    private final Condition deliveryAvailable;
+
+    /**
+     * {@code nonInteractiveDeliveries} the number of the non-interactive deliveries currently executed by the workers
+     */
+    private int nonInteractiveDeliveries;
+
+    /**
+     * {@code size} the number of the deliveries waiting in the lanes
+     */
+    private int size;
+
+    /**
+     * Constructor to init the {@link MonkeyDeliveryLanes} class
+     *
+     * @param workers: the number of the workers which execute the deliveries
+     *
+     * @throws IllegalArgumentException when the workers are less than two, so no worker can be reserved to the
+     * {@link SendPriority#INTERACTIVE} lane
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    MonkeyDeliveryLanes(int workers) {
+        if(workers < 2)
+            throw new IllegalArgumentException("At least two workers are required to reserve one to the interactive "
+                    + "deliveries");
+        SendPriority[] priorities = SendPriority.values();
+        lanes = new ArrayDeque[priorities.length];
+        currentWeights = new int[priorities.length];
+        for (SendPriority priority : priorities)
+            lanes[priority.ordinal()] = new ArrayDeque<>();
+        maxNonInteractiveDeliveries = workers - 1;
+        lock = new ReentrantLock();
+        deliveryAvailable = lock.newCondition();
+    }
+
+    /**
+     * Method to add a delivery to its lane
+     *
+     * @param delivery: the delivery to add
+     * @param priority: the priority of the delivery
+     */
+    void add(T delivery, SendPriority priority) {
+        lock.lock();
+        try {
+            lanes[priority.ordinal()].addLast(delivery);
+            size++;
+            deliveryAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to take the next delivery to execute, waiting if necessary
+     *
+     * @param timeout: the time, in milliseconds, to wait for a delivery
+     * @return the next delivery, null if no delivery could be dispatched within the timeout
+     * @throws InterruptedException when the current thread is interrupted while waiting
+     * @apiNote when the delivery has been executed {@link #done(SendPriority)} must be invoked with its priority
+     */
+    T poll(long timeout) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+        lock.lock();
+        try {
+            while (true) {
+                int lane = selectLane();
+                if(lane != -1) {
+                    size--;
+                    if(lane != INTERACTIVE.ordinal())
+                        nonInteractiveDeliveries++;
+                    return lanes[lane].pollFirst();
+                }
+                if(remaining <= 0)
+                    return null;
+                remaining = deliveryAvailable.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to select the lane to dispatch with the smooth weighted round-robin <br>
+     * No-any params required
+     *
+     * @return the index of the lane selected as int, -1 if no lane can be dispatched
+     */
+    private int selectLane() {
+        int selectedLane = -1;
+        int totalWeight = 0;
+        SendPriority[] priorities = SendPriority.values();
+        boolean nonInteractiveAllowed = nonInteractiveDeliveries < maxNonInteractiveDeliveries;
+        for (int lane = 0; lane < lanes.length; lane++) {
+            if(lanes[lane].isEmpty() || (lane != INTERACTIVE.ordinal() && !nonInteractiveAllowed))
+                continue;
+            int weight = priorities[lane].getWeight();
+            currentWeights[lane] += weight;
+            totalWeight += weight;
+            if(selectedLane == -1 || currentWeights[lane] > currentWeights[selectedLane])
+                selectedLane = lane;
+        }
+        if(selectedLane != -1)
+            currentWeights[selectedLane] -= totalWeight;
+        return selectedLane;
+    }
+
+    /**
+     * Method to mark as executed a delivery of a lane
+     *
+     * @param priority: the priority of the delivery executed
+     */
+    void done(SendPriority priority) {
+        lock.lock();
+        try {
+            if(priority != INTERACTIVE) {
+                nonInteractiveDeliveries--;
+                deliveryAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to get the number of the deliveries waiting in the lanes <br>
+     * No-any params required
+     *
+     * @return the number of the deliveries waiting as int
+     */
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to check whether no delivery is waiting in the lanes <br>
+     * No-any params required
+     *
+     * @return whether no delivery is waiting in the lanes as boolean
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.tecknobit.monkey;
+
+/**
+ * The {@code MonkeyExpiredEmail} class is useful to describe a verification email expired without being verified,
+ * without exposing its verification code
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyExpiryListener
+ */
+public final class MonkeyExpiredEmail {
+
+    /**
+     * {@code email} the email of the recipient user
+     */
+    private final String email;
+
+    /**
+     * {@code sendTimestamp} the timestamp when the verification email has been sent
+     */
+    private final long sendTimestamp;
+
+    /**
+     * {@code expirationTimestamp} the timestamp when the verification email expired
+     */
+    private final long expirationTimestamp;
+
+    /**
+     * Constructor to init the {@link MonkeyExpiredEmail} class
+     *
+     * @param email: the email of the recipient user
+     * @param sendTimestamp: the timestamp when the verification email has been sent
+     * @param expirationTimestamp: the timestamp when the verification email expired
+     *
+     */
+    public MonkeyExpiredEmail(String email, long sendTimestamp, long expirationTimestamp) {
+        this.email = email;
+        this.sendTimestamp = sendTimestamp;
+        this.expirationTimestamp = expirationTimestamp;
+    }
+
+    /**
+     * Method to get {@link #email} instance <br>
+     * No-any params required
+     *
+     * @return {@link #email} instance as {@link String}
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Method to get {@link #sendTimestamp} instance <br>
+     * No-any params required
+     *
+     * @return {@link #sendTimestamp} instance as long
+     */
+    public long getSendTimestamp() {
+        return sendTimestamp;
+    }
+
+    /**
+     * Method to get {@link #expirationTimestamp} instance <br>
+     * No-any params required
+     *
+     * @return {@link #expirationTimestamp} instance as long
+     */
+    public long getExpirationTimestamp() {
+        return expirationTimestamp;
+    }
+
+}
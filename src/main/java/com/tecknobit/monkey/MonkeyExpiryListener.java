@@ -0,0 +1,21 @@
+package com.tecknobit.monkey;
+
+import java.util.List;
+
+/**
+ * The {@code MonkeyExpiryListener} interface is useful to be notified of the verification emails expired without being
+ * verified, so the resources created for their recipients can be cleaned up in bulk
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public interface MonkeyExpiryListener {
+
+    /**
+     * Method invoked with a batch of the verification emails expired by a removal of the expired verification emails
+     *
+     * @param expiredEmails: the verification emails expired, each one with its recipient, its send timestamp and its
+     * expiration timestamp
+     */
+    void onExpired(List<MonkeyExpiredEmail> expiredEmails);
+
+}
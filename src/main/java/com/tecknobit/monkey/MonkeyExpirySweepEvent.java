@@ -0,0 +1,33 @@
+package com.tecknobit.monkey;
+
+import jdk.jfr.*;
+
+/**
+ * The {@code MonkeyExpirySweepEvent} class is useful to record in the JDK Flight Recorder each removal of the expired
+ * verification emails
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @apiNote the event is disabled by default, it must be enabled in the recording settings, e.g.
+ * <b>com.tecknobit.monkey.ExpirySweep#enabled=true</b>
+ */
+@Name("com.tecknobit.monkey.ExpirySweep")
+@Label("Monkey Expiry Sweep")
+@Category("Monkey")
+@Description("A removal of the expired verification emails executed by the MonkeyVerifier")
+@Enabled(false)
+@StackTrace(false)
+public class MonkeyExpirySweepEvent extends Event {
+
+    /**
+     * {@code scannedEntries} the number of the verification emails scanned
+     */
+    @Label("Scanned Entries")
+    int scannedEntries;
+
+    /**
+     * {@code removedEntries} the number of the expired verification emails removed
+     */
+    @Label("Removed Entries")
+    int removedEntries;
+
+}
@@ -0,0 +1,84 @@
+package com.tecknobit.monkey;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code MonkeyFailedAttempts} class is useful to limit the failed verifications of each email within the
+ * validity of its code, so the codes cannot be guessed by brute force
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class MonkeyFailedAttempts {
+
+    /**
+     * {@code MAX_TRACKED_ADDRESSES} the max number of the emails whose failed attempts are tracked
+     */
+    private static final int MAX_TRACKED_ADDRESSES = 100000;
+
+    /**
+     * {@code maxFailedAttempts} the max number of the failed attempts of an email within the validity of its code
+     */
+    private final int maxFailedAttempts;
+
+    /**
+     * {@code previousWindows} the number of the windows before the current one whose codes are still valid
+     */
+    private final long previousWindows;
+
+    /**
+     * {@code attempts} the attempts of the emails, each one with the window of its first attempt and the number of its
+     * attempts
+     */
+    private final Map<String, long[]> attempts;
+
+    /**
+     * Constructor to init the {@link MonkeyFailedAttempts} class
+     *
+     * @param maxFailedAttempts: the max number of the failed attempts of an email within the validity of its code
+     * @param previousWindows: the number of the windows before the current one whose codes are still valid
+     *
+     */
+    MonkeyFailedAttempts(int maxFailedAttempts, long previousWindows) {
+        this.maxFailedAttempts = maxFailedAttempts;
+        this.previousWindows = previousWindows;
+        attempts = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                return size() > MAX_TRACKED_ADDRESSES;
+            }
+        };
+    }
+
+    /**
+     * Method to count an attempt of an email before its code is matched
+     *
+     * @param email: the email of the user
+     * @param window: the window of the code verified, e.g. its time-step or the timestamp when it has been sent
+     * @return whether the attempt is allowed as boolean, false when the email exceeded the max number of the failed
+     * attempts
+     * @apiNote the attempt is counted as failed until {@link #reset} is invoked, so the concurrent attempts cannot
+     * exceed the max number of the failed attempts
+     */
+    synchronized boolean tryAttempt(String email, long window) {
+        long[] emailAttempts = attempts.get(email);
+        if(emailAttempts == null || emailAttempts[0] < window - previousWindows) {
+            attempts.put(email, new long[]{window, 1});
+            return true;
+        }
+        if(emailAttempts[1] >= maxFailedAttempts)
+            return false;
+        emailAttempts[1]++;
+        return true;
+    }
+
+    /**
+     * Method to reset the attempts of an email after its code has been verified
+     *
+     * @param email: the email of the user
+     */
+    synchronized void reset(String email) {
+        attempts.remove(email);
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.tecknobit.monkey;
+
+import org.simplejavamail.api.email.Email;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static org.simplejavamail.converter.EmailConverter.emailToEML;
+
+/**
+ * The {@code MonkeyFileDropTransport} class is useful to write the verification emails as <b>.eml</b> files in a
+ * directory instead of delivering them
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyTransport
+ */
+public class MonkeyFileDropTransport implements MonkeyTransport {
+
+    /**
+     * {@code EML_EXTENSION} the extension of the files written
+     */
+    public static final String EML_EXTENSION = ".eml";
+
+    /**
+     * {@code directory} the directory where the emails are written
+     */
+    private final Path directory;
+
+    /**
+     * {@code filesCounter} the counter used to name the files written
+     */
+    private final AtomicLong filesCounter;
+
+    /**
+     * Constructor to init the {@link MonkeyFileDropTransport} class
+     *
+     * @param directory: the directory where the emails are written
+     *
+     * @throws IOException when the directory cannot be created
+     */
+    public MonkeyFileDropTransport(File directory) throws IOException {
+        this.directory = Files.createDirectories(directory.toPath());
+        filesCounter = new AtomicLong();
+    }
+
+    /**
+     * Method to write a verification email as <b>.eml</b> file
+     *
+     * @param email: the email to write
+     * @throws UncheckedIOException when an error occurred during the writing of the file
+     * @apiNote the file is first written with a temporary name, then renamed, so a complete file is always read
+     */
+    @Override
+    public void send(Email email) {
+        String filename = System.currentTimeMillis() + "-" + filesCounter.incrementAndGet();
+        Path tmpFile = directory.resolve(filename + ".tmp");
+        try {
+            Files.write(tmpFile, emailToEML(email).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmpFile, directory.resolve(filename + EML_EXTENSION), ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method to get {@link #directory} instance <br>
+     * No-any params required
+     *
+     * @return {@link #directory} instance as {@link File}
+     */
+    public File getDirectory() {
+        return directory.toFile();
+    }
+
+}
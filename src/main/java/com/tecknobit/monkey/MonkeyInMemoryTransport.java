@@ -0,0 +1,111 @@
+package com.tecknobit.monkey;
+
+import org.simplejavamail.api.email.Email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code MonkeyInMemoryTransport} class is useful to capture the verification emails into a bounded queue instead
+ * of delivering them, for example to run tests or benchmarks without any network
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyTransport
+ */
+public class MonkeyInMemoryTransport implements MonkeyTransport {
+
+    /**
+     * {@code DEFAULT_CAPACITY} the default max number of the emails kept in the queue
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * {@code messages} the queue of the emails captured
+     */
+    private final ArrayBlockingQueue<Email> messages;
+
+    /**
+     * {@code droppedMessages} the number of the emails dropped because the queue was full
+     */
+    private final AtomicLong droppedMessages;
+
+    /**
+     * Constructor to init the {@link MonkeyInMemoryTransport} class with the {@link #DEFAULT_CAPACITY} <br>
+     * No-any params required
+     */
+    public MonkeyInMemoryTransport() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyInMemoryTransport} class
+     *
+     * @param capacity: the max number of the emails kept in the queue
+     *
+     */
+    public MonkeyInMemoryTransport(int capacity) {
+        messages = new ArrayBlockingQueue<>(capacity);
+        droppedMessages = new AtomicLong();
+    }
+
+    /**
+     * Method to capture a verification email
+     *
+     * @param email: the email to capture
+     * @apiNote when the queue is full the oldest email is dropped
+     */
+    @Override
+    public void send(Email email) {
+        while (!messages.offer(email)) {
+            if(messages.poll() != null)
+                droppedMessages.incrementAndGet();
+        }
+    }
+
+    /**
+     * Method to retrieve and remove the oldest email captured, waiting if necessary
+     *
+     * @param timeout: the time, in milliseconds, to wait for an email
+     * @return the oldest email captured as {@link Email}, null if no email has been captured within the timeout
+     * @throws InterruptedException when the current thread is interrupted while waiting
+     */
+    public Email poll(long timeout) throws InterruptedException {
+        return messages.poll(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to retrieve and remove all the emails captured <br>
+     * No-any params required
+     *
+     * @return the emails captured as {@link List} of {@link Email}
+     */
+    public List<Email> drainMessages() {
+        List<Email> drainedMessages = new ArrayList<>();
+        messages.drainTo(drainedMessages);
+        return drainedMessages;
+    }
+
+    /**
+     * Method to get the number of the emails currently captured <br>
+     * No-any params required
+     *
+     * @return the number of the emails currently captured as int
+     */
+    public int getCapturedMessages() {
+        return messages.size();
+    }
+
+    /**
+     * Method to get {@link #droppedMessages} instance <br>
+     * No-any params required
+     *
+     * @return {@link #droppedMessages} instance as long
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+}
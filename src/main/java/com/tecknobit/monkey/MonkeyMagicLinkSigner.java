@@ -0,0 +1,292 @@
+package com.tecknobit.monkey;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code MonkeyMagicLinkSigner} class is useful to sign and verify the tokens of the magic links: each token
+ * carries the email and the expiration of the verification and is signed with an HMAC, so its verification is pure
+ * CPU work and does not require to store the pending verifications. <br>
+ * The keys are identified by an id carried by the token, so a key can be rotated while the tokens signed with the
+ * previous keys are still verifiable until these keys are retired
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeyMagicLinkSigner {
+
+    /**
+     * {@code HMAC_ALGORITHM} the algorithm used to sign the tokens
+     */
+    public static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * {@code MAX_TOKEN_VALIDITY} the max time, in milliseconds, a token can be valid, a token cannot be revoked before
+     * its expiration except retiring its key, so its validity is always bounded
+     */
+    public static final long MAX_TOKEN_VALIDITY = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * {@code TOKEN_SEPARATOR} the separator of the parts of a token
+     */
+    private static final String TOKEN_SEPARATOR = ".";
+
+    /**
+     * {@code ENCODER} the encoder of the parts of a token, its alphabet is safe to be used in the links
+     */
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * {@code DECODER} the decoder of the parts of a token
+     */
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * {@code keys} the key ring used to verify the tokens, the keys are indexed by their id
+     */
+    private final ConcurrentHashMap<String, SecretKeySpec> keys;
+
+    /**
+     * {@code currentKeyId} the id of the key used to sign the new tokens
+     */
+    private volatile String currentKeyId;
+
+    /**
+     * {@code consumedTokens} the tokens already consumed, null when the replay protection is not enabled
+     */
+    private volatile ConsumedTokens consumedTokens;
+
+    /**
+     * Constructor to init the {@link MonkeyMagicLinkSigner} class
+     *
+     * @param keyId: the id of the key used to sign the tokens
+     * @param secret: the secret of the key, at least 32 bytes are recommended
+     *
+     */
+    public MonkeyMagicLinkSigner(String keyId, byte[] secret) {
+        keys = new ConcurrentHashMap<>();
+        rotateKey(keyId, secret);
+    }
+
+    /**
+     * Method to rotate the key used to sign the new tokens, the previous keys are kept to verify the tokens already
+     * sent until they are retired with {@link #retireKey(String)}
+     *
+     * @param keyId: the id of the new key
+     * @param secret: the secret of the new key
+     *
+     * @throws IllegalArgumentException when the id of the key is not valid or the secret is empty
+     */
+    public void rotateKey(String keyId, byte[] secret) {
+        if(keyId == null || keyId.isEmpty() || keyId.contains(TOKEN_SEPARATOR))
+            throw new IllegalArgumentException("The id of the key cannot be empty or contain the \""
+                    + TOKEN_SEPARATOR + "\" character");
+        if(secret == null || secret.length == 0)
+            throw new IllegalArgumentException("The secret of the key cannot be empty");
+        keys.put(keyId, new SecretKeySpec(secret.clone(), HMAC_ALGORITHM));
+        currentKeyId = keyId;
+    }
+
+    /**
+     * Method to retire a key, the tokens signed with it are no longer valid
+     *
+     * @param keyId: the id of the key to retire
+     *
+     * @throws IllegalArgumentException when the key is the one currently used to sign the tokens
+     */
+    public void retireKey(String keyId) {
+        if(keyId.equals(currentKeyId))
+            throw new IllegalArgumentException("The current key cannot be retired, rotate it first");
+        keys.remove(keyId);
+    }
+
+    /**
+     * Method to enable the replay protection, the tokens verified are consumed and cannot be verified again
+     *
+     * @param maxConsumedTokens: the max number of the consumed tokens remembered, when exceeded the ones nearest to
+     *                         their expiration are forgotten
+     *
+     * @throws IllegalArgumentException when the max number of the consumed tokens is not positive
+     */
+    public void enableReplayProtection(int maxConsumedTokens) {
+        if(maxConsumedTokens <= 0)
+            throw new IllegalArgumentException("The max number of the consumed tokens must be greater than zero");
+        consumedTokens = new ConsumedTokens(maxConsumedTokens);
+    }
+
+    /**
+     * Method to sign a token for an email
+     *
+     * @param email: the email to verify with the token
+     * @param expiration: the timestamp when the token expires
+     * @return the token signed as {@link String}
+     * @throws IllegalArgumentException when the token would be valid longer than the {@link #MAX_TOKEN_VALIDITY}
+     */
+    public String sign(String email, long expiration) {
+        if(expiration - System.currentTimeMillis() > MAX_TOKEN_VALIDITY)
+            throw new IllegalArgumentException("A token cannot be valid longer than " + MAX_TOKEN_VALIDITY + " ms");
+        String keyId = currentKeyId;
+        String payload = keyId + TOKEN_SEPARATOR + ENCODER.encodeToString(email.getBytes(StandardCharsets.UTF_8))
+                + TOKEN_SEPARATOR + Long.toString(expiration, Character.MAX_RADIX);
+        return payload + TOKEN_SEPARATOR + ENCODER.encodeToString(computeSignature(keys.get(keyId), payload));
+    }
+
+    /**
+     * Method to verify a token checking its signature and its expiration
+     *
+     * @param token: the token to verify
+     * @return the email verified by the token as {@link String}, null if the token is not valid, is expired or has
+     * been already consumed
+     */
+    public String verify(String token) {
+        return verifyToken(token, null);
+    }
+
+    /**
+     * Method to verify a token checking its signature, its expiration and whether it has been signed for an email
+     *
+     * @param token: the token to verify
+     * @param email: the email which the token must verify
+     * @return whether the token is valid for the email as boolean
+     * @apiNote the token is consumed only when it matches the email, so a call with a wrong email does not invalidate
+     * the token
+     */
+    public boolean verify(String token, String email) {
+        return email != null && verifyToken(token, email) != null;
+    }
+
+    /**
+     * Method to verify a token checking its signature and its expiration, then the token is consumed
+     *
+     * @param token: the token to verify
+     * @param expectedEmail: the email which the token must verify, null to accept any email
+     * @return the email verified by the token as {@link String}, null if the token is not valid, is expired, does not
+     * match the expected email or has been already consumed
+     * @apiNote the signature must be in its canonical encoding, the encodings which differ only in the unused bits of
+     * their last character decode to the same signature and would bypass the replay protection
+     */
+    private String verifyToken(String token, String expectedEmail) {
+        if(token == null)
+            return null;
+        String[] parts = token.split("\\.", -1);
+        if(parts.length != 4)
+            return null;
+        SecretKeySpec key = keys.get(parts[0]);
+        if(key == null)
+            return null;
+        try {
+            String payload = token.substring(0, token.lastIndexOf(TOKEN_SEPARATOR));
+            byte[] signature = DECODER.decode(parts[3]);
+            if(!ENCODER.encodeToString(signature).equals(parts[3]))
+                return null;
+            if(!MessageDigest.isEqual(computeSignature(key, payload), signature))
+                return null;
+            long expiration = Long.parseLong(parts[2], Character.MAX_RADIX);
+            long currentTimestamp = System.currentTimeMillis();
+            if(currentTimestamp >= expiration || expiration - currentTimestamp > MAX_TOKEN_VALIDITY)
+                return null;
+            String email = new String(DECODER.decode(parts[1]), StandardCharsets.UTF_8);
+            if(expectedEmail != null && !expectedEmail.equals(email))
+                return null;
+            ConsumedTokens consumedTokens = this.consumedTokens;
+            if(consumedTokens != null && !consumedTokens.consume(parts[3], expiration))
+                return null;
+            return email;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method to compute the signature of a payload
+     *
+     * @param key: the key to use
+     * @param payload: the payload to sign
+     * @return the signature as byte array
+     */
+    private static byte[] computeSignature(SecretKeySpec key, String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Method to get {@link #currentKeyId} instance <br>
+     * No-any params required
+     *
+     * @return {@link #currentKeyId} instance as {@link String}
+     */
+    public String getCurrentKeyId() {
+        return currentKeyId;
+    }
+
+    /**
+     * The {@code ConsumedTokens} class is useful to remember the tokens consumed until their expiration: the tokens
+     * are ordered by their expiration, so each purge visits only the tokens expired
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class ConsumedTokens {
+
+        /**
+         * {@code maxConsumedTokens} the max number of the consumed tokens remembered
+         */
+        private final int maxConsumedTokens;
+
+        /**
+         * {@code signatures} the signatures of the tokens consumed
+         */
+        private final HashSet<String> signatures;
+
+        /**
+         * {@code expirations} the signatures of the tokens consumed ordered by their expiration
+         */
+        private final PriorityQueue<Map.Entry<String, Long>> expirations;
+
+        /**
+         * Constructor to init the {@link ConsumedTokens} class
+         *
+         * @param maxConsumedTokens: the max number of the consumed tokens remembered
+         *
+         */
+        private ConsumedTokens(int maxConsumedTokens) {
+            this.maxConsumedTokens = maxConsumedTokens;
+            signatures = new HashSet<>();
+            expirations = new PriorityQueue<>(Map.Entry.comparingByValue());
+        }
+
+        /**
+         * Method to consume a token, the tokens expired are purged first
+         *
+         * @param signature: the signature of the token
+         * @param expiration: the timestamp when the token expires
+         * @return whether the token has been consumed as boolean, false if it has been already consumed
+         */
+        private synchronized boolean consume(String signature, long expiration) {
+            long currentTimestamp = System.currentTimeMillis();
+            while (!expirations.isEmpty() && expirations.peek().getValue() <= currentTimestamp)
+                signatures.remove(expirations.poll().getKey());
+            if(signatures.contains(signature))
+                return false;
+            if(signatures.size() >= maxConsumedTokens)
+                signatures.remove(expirations.poll().getKey());
+            signatures.add(signature);
+            expirations.add(Map.entry(signature, expiration));
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeyVerifier.EmailSent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code MonkeyMemoryCodesStore} class is useful to store the verification emails sent in memory, it is the store
+ * used by default by the {@link MonkeyVerifier}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyCodesStore
+ * @apiNote when the session has been restarted, for example the server is restarted, the store will be empty and
+ * the past verification emails sent will be considered expired
+ */
+public class MonkeyMemoryCodesStore implements MonkeyCodesStore {
+
+    /**
+     * {@code emailsSent} the verification emails sent indexed by the email of the recipient
+     */
+    private final ConcurrentHashMap<String, EmailSent> emailsSent;
+
+    /**
+     * Constructor to init the {@link MonkeyMemoryCodesStore} class <br>
+     * No-any params required
+     */
+    public MonkeyMemoryCodesStore() {
+        emailsSent = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Method to store a verification email sent, replacing the previous one sent to the same email
+     *
+     * @param emailSent: the verification email sent to store
+     * @return the verification email previously stored for the same email as {@link EmailSent}, null if not stored
+     */
+    @Override
+    public EmailSent put(EmailSent emailSent) {
+        return emailsSent.put(emailSent.getEmail(), emailSent);
+    }
+
+    /**
+     * Method to get the verification email sent to an email
+     *
+     * @param email: the email of the recipient user
+     * @return the verification email sent as {@link EmailSent}, null if not stored
+     */
+    @Override
+    public EmailSent get(String email) {
+        return emailsSent.get(email);
+    }
+
+    /**
+     * Method to remove the verification email sent to an email
+     *
+     * @param email: the email of the recipient user
+     * @return the verification email removed as {@link EmailSent}, null if not stored
+     */
+    @Override
+    public EmailSent remove(String email) {
+        return emailsSent.remove(email);
+    }
+
+    /**
+     * Method to remove the verification emails sent before a timestamp
+     *
+     * @param expirationTimestamp: the timestamp before which, inclusive, the verification emails are expired
+     * @return the verification emails removed as {@link List} of {@link EmailSent}
+     */
+    @Override
+    public List<EmailSent> removeExpired(long expirationTimestamp) {
+        List<EmailSent> removedEmails = new ArrayList<>();
+        for (EmailSent emailSent : emailsSent.values())
+            if(emailSent.getTimestamp() <= expirationTimestamp && emailsSent.remove(emailSent.getEmail(), emailSent))
+                removedEmails.add(emailSent);
+        return removedEmails;
+    }
+
+    /**
+     * Method to get the number of the verification emails stored <br>
+     * No-any params required
+     *
+     * @return the number of the verification emails stored as int
+     */
+    @Override
+    public int size() {
+        return emailsSent.size();
+    }
+
+}
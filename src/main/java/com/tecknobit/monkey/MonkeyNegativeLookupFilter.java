@@ -0,0 +1,134 @@
+package com.tecknobit.monkey;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The {@code MonkeyNegativeLookupFilter} class is useful to short-circuit locally the verifications of the emails which
+ * have no verification code pending: it is a counting Bloom filter maintained when the verification emails are stored
+ * and removed, so when it does not contain an email the lookup in the {@link MonkeyCodesStore} can be skipped
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @apiNote the filter can return false positives, never false negatives for the emails stored through it
+ */
+class MonkeyNegativeLookupFilter {
+
+    /**
+     * {@code FNV_OFFSET_BASIS} the offset basis of the FNV-1a hash
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * {@code FNV_PRIME} the prime of the FNV-1a hash
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * {@code counters} the counters of the filter
+     */
+    private final AtomicIntegerArray counters;
+
+    /**
+     * {@code hashFunctions} the number of the counters touched by each email
+     */
+    private final int hashFunctions;
+
+    /**
+     * Constructor to init the {@link MonkeyNegativeLookupFilter} class
+     *
+     * @param expectedEntries: the expected number of the verification emails pending at the same time
+     * @param falsePositiveRate: the rate of the false positives expected when the entries are the expected ones
+     *
+     */
+    MonkeyNegativeLookupFilter(int expectedEntries, double falsePositiveRate) {
+        double log2 = Math.log(2);
+        long size = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (log2 * log2));
+        counters = new AtomicIntegerArray((int) Math.min(Math.max(size, 64), Integer.MAX_VALUE - 8));
+        hashFunctions = Math.max(1, (int) Math.round((double) counters.length() / expectedEntries * log2));
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyNegativeLookupFilter} class
+     *
+     * @param countersNumber: the number of the counters of the filter
+     * @param hashFunctions: the number of the counters touched by each email
+     *
+     */
+    private MonkeyNegativeLookupFilter(int countersNumber, int hashFunctions) {
+        counters = new AtomicIntegerArray(countersNumber);
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Method to create an empty filter with the same size of this filter <br>
+     * No-any params required
+     *
+     * @return the empty filter as {@link MonkeyNegativeLookupFilter}
+     */
+    MonkeyNegativeLookupFilter emptyCopy() {
+        return new MonkeyNegativeLookupFilter(counters.length(), hashFunctions);
+    }
+
+    /**
+     * Method to add an email to the filter
+     *
+     * @param email: the email to add
+     */
+    void add(String email) {
+        long hash = hash(email);
+        for (int j = 0; j < hashFunctions; j++)
+            counters.incrementAndGet(index(hash, j));
+    }
+
+    /**
+     * Method to remove an email previously added to the filter
+     *
+     * @param email: the email to remove
+     */
+    void remove(String email) {
+        long hash = hash(email);
+        for (int j = 0; j < hashFunctions; j++)
+            counters.getAndUpdate(index(hash, j), counter -> counter > 0 ? counter - 1 : 0);
+    }
+
+    /**
+     * Method to check whether an email might be contained by the filter
+     *
+     * @param email: the email to check
+     * @return whether the email might be contained as boolean, false when it is definitely not contained
+     */
+    boolean mightContain(String email) {
+        long hash = hash(email);
+        for (int j = 0; j < hashFunctions; j++)
+            if(counters.get(index(hash, j)) == 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Method to get the index of a counter with the double hashing technique
+     *
+     * @param hash: the hash of the email
+     * @param function: the number of the hash function
+     * @return the index of the counter as int
+     */
+    private int index(long hash, int function) {
+        int combinedHash = (int) hash + function * ((int) (hash >>> 32) | 1);
+        return Math.floorMod(combinedHash, counters.length());
+    }
+
+    /**
+     * Method to compute the FNV-1a hash of an email
+     *
+     * @param email: the email to hash
+     * @return the hash as long
+     */
+    private static long hash(String email) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int j = 0; j < email.length(); j++) {
+            hash ^= email.charAt(j);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,586 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeyVerifier.SendPriority;
+import org.simplejavamail.api.email.Email;
+import org.simplejavamail.api.email.Recipient;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+import static org.simplejavamail.converter.EmailConverter.emailToEML;
+import static org.simplejavamail.converter.EmailConverter.emlToEmail;
+
+/**
+ * The {@code MonkeyOutbox} class is useful to decouple the issuance of the verification codes from their delivery:
+ * each verification email is appended to a local on-disk log, then a pool of workers delivers it and marks its record
+ * as done. The records not completed, for example after a crash, are replayed when the outbox is opened again. <br>
+ * A failed delivery is scheduled again with an exponential delay without keeping a worker busy, after
+ * {@link #MAX_DELIVERY_ATTEMPTS} failed attempts the record is dead-lettered: it is removed from the log and its
+ * recipients are notified to the dead-letter listener
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class MonkeyOutbox {
+
+    /**
+     * {@code OutboxDelivery} the delivery to execute for each record of the outbox
+     */
+    interface OutboxDelivery {
+
+        /**
+         * Method to deliver a verification email
+         *
+         * @param email: the email to deliver
+         * @param verificationCode: the verification code attached to the verification email
+         */
+        void deliver(Email email, String verificationCode);
+
+    }
+
+    /**
+     * {@code OUTBOX_LOG} the name of the log file of the outbox
+     */
+    private static final String OUTBOX_LOG = "monkey_outbox.log";
+
+    /**
+     * {@code APPEND_RECORD} the type of the record which stores a verification email to deliver
+     */
+    private static final byte APPEND_RECORD = 'A';
+
+    /**
+     * {@code DONE_RECORD} the type of the record which marks a verification email as delivered
+     */
+    private static final byte DONE_RECORD = 'D';
+
+    /**
+     * {@code RECORD_HEADER_LENGTH} the length, in bytes, of the type and of the identifier of a record
+     */
+    private static final int RECORD_HEADER_LENGTH = Byte.BYTES + Long.BYTES;
+
+    /**
+     * {@code MAX_DELIVERY_ATTEMPTS} the max number of attempts to deliver a record before dead-lettering it
+     */
+    private static final int MAX_DELIVERY_ATTEMPTS = 5;
+
+    /**
+     * {@code RETRY_DELAY} the base delay, in milliseconds, between the delivery attempts of a record
+     */
+    private static final long RETRY_DELAY = 500;
+
+    /**
+     * {@code COMPACTION_THRESHOLD} the size, in bytes, of the log after which it is truncated when no records are
+     * pending
+     */
+    private static final long COMPACTION_THRESHOLD = 4 * 1024 * 1024;
+
+    /**
+     * {@code logPath} the path of the log file of the outbox
+     */
+    private final Path logPath;
+
+    /**
+     * {@code channel} the channel used to append the records to the log
+     */
+    private final FileChannel channel;
+
+    /**
+     * {@code delivery} the delivery to execute for each record
+     */
+    private final OutboxDelivery delivery;
+
+    /**
+     * {@code lanes} the lanes of the records waiting to be delivered, one for each {@link SendPriority}
+     */
+    private final MonkeyDeliveryLanes<OutboxRecord> lanes;
+
+    /**
+     * {@code pendingRecords} the records appended to the log and not delivered yet
+     */
+    private final ConcurrentHashMap<Long, OutboxRecord> pendingRecords;
+
+    /**
+     * {@code deadLetterListener} the listener notified with the recipients of each record dead-lettered
+     */
+    private final Consumer<List<String>> deadLetterListener;
+
+    /**
+     * {@code retryScheduler} the scheduler which puts back in the {@link #lanes} the records whose delivery failed
+     */
+    private final ScheduledThreadPoolExecutor retryScheduler;
+
+    /**
+     * {@code scheduledRetries} the number of the records waiting for their next delivery attempt
+     */
+    private final AtomicInteger scheduledRetries;
+
+    /**
+     * {@code deadLetters} the number of the records dead-lettered
+     */
+    private final AtomicLong deadLetters;
+
+    /**
+     * {@code workers} the workers which deliver the records
+     */
+    private final List<Thread> workers;
+
+    /**
+     * {@code activeDeliveries} the number of deliveries currently executed by the {@link #workers}
+     */
+    private final AtomicInteger activeDeliveries;
+
+    /**
+     * {@code writeLock} the lock used to append the records to the log
+     */
+    private final Object writeLock;
+
+    /**
+     * {@code syncLock} the lock used to force the records appended on the disk
+     */
+    private final Object syncLock;
+
+    /**
+     * {@code nextId} the identifier of the next record to append
+     */
+    private long nextId;
+
+    /**
+     * {@code writtenSequence} the sequence of the last record written in the log
+     */
+    private long writtenSequence;
+
+    /**
+     * {@code syncedSequence} the sequence of the last record forced on the disk
+     */
+    private volatile long syncedSequence;
+
+    /**
+     * {@code closed} whether the outbox has been closed
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor to init the {@link MonkeyOutbox} class
+     *
+     * @param directory: the directory where store the log of the outbox
+     * @param workersNumber: the number of the workers which deliver the records, at least two
+     * @param delivery: the delivery to execute for each record
+     * @param deadLetterListener: the listener notified with the recipients of each record dead-lettered
+     *
+     * @throws IOException when an error occurred during the operations with the log file
+     * @apiNote the records not delivered found in the log are replayed
+     */
+    MonkeyOutbox(File directory, int workersNumber, OutboxDelivery delivery,
+                 Consumer<List<String>> deadLetterListener) throws IOException {
+        if(workersNumber < 2)
+            throw new IllegalArgumentException("The workers number must be at least two, so one is always reserved "
+                    + "to the interactive deliveries");
+        Files.createDirectories(directory.toPath());
+        logPath = directory.toPath().resolve(OUTBOX_LOG);
+        this.delivery = delivery;
+        this.deadLetterListener = deadLetterListener;
+        lanes = new MonkeyDeliveryLanes<>(workersNumber);
+        pendingRecords = new ConcurrentHashMap<>();
+        activeDeliveries = new AtomicInteger();
+        writeLock = new Object();
+        syncLock = new Object();
+        scheduledRetries = new AtomicInteger();
+        deadLetters = new AtomicLong();
+        retryScheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread retrier = new Thread(runnable, "monkey-outbox-retrier");
+            retrier.setDaemon(true);
+            return retrier;
+        });
+        List<OutboxRecord> replayedRecords = replayLog();
+        channel = FileChannel.open(logPath, CREATE, WRITE, APPEND);
+        for (OutboxRecord record : replayedRecords) {
+            pendingRecords.put(record.id, record);
+            lanes.add(record, record.priority);
+        }
+        workers = new ArrayList<>();
+        for (int j = 0; j < workersNumber; j++) {
+            Thread worker = new Thread(this::deliverRecords, "monkey-outbox-worker-" + j);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Method to read the log to find the records not delivered, then the log is compacted keeping only those records
+     * <br>
+     * No-any params required
+     *
+     * @return the records not delivered as {@link List} of {@link OutboxRecord}
+     * @throws IOException when an error occurred during the operations with the log file
+     * @apiNote a record torn by a crash or with a corrupted header is treated as the end of the log, a record with a
+     * corrupted payload is discarded
+     */
+    private List<OutboxRecord> replayLog() throws IOException {
+        LinkedHashMap<Long, byte[]> appendedRecords = new LinkedHashMap<>();
+        if(Files.exists(logPath)) {
+            long remainingBytes = Files.size(logPath);
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+                while (remainingBytes >= RECORD_HEADER_LENGTH) {
+                    byte type = input.readByte();
+                    long id = input.readLong();
+                    remainingBytes -= RECORD_HEADER_LENGTH;
+                    if(id < 0 || (type != APPEND_RECORD && type != DONE_RECORD))
+                        break;
+                    if(type == APPEND_RECORD) {
+                        if(remainingBytes < Integer.BYTES)
+                            break;
+                        int payloadLength = input.readInt();
+                        remainingBytes -= Integer.BYTES;
+                        if(payloadLength < 0 || payloadLength > remainingBytes)
+                            break;
+                        byte[] payload = new byte[payloadLength];
+                        input.readFully(payload);
+                        remainingBytes -= payloadLength;
+                        appendedRecords.put(id, payload);
+                    } else
+                        appendedRecords.remove(id);
+                    nextId = Math.max(nextId, id + 1);
+                }
+            } catch (EOFException ignored) {
+                // the log has been truncated while it was read
+            }
+        }
+        List<OutboxRecord> records = new ArrayList<>();
+        Path compactedLog = logPath.resolveSibling(OUTBOX_LOG + ".tmp");
+        try (FileChannel compactedChannel = FileChannel.open(compactedLog, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            for (Map.Entry<Long, byte[]> entry : appendedRecords.entrySet()) {
+                try (DataInputStream payload = new DataInputStream(new ByteArrayInputStream(entry.getValue()))) {
+                    SendPriority priority = SendPriority.values()[payload.readByte()];
+                    String verificationCode = payload.readUTF();
+                    if(verificationCode.isEmpty())
+                        verificationCode = null;
+                    byte[] eml = payload.readAllBytes();
+                    records.add(new OutboxRecord(entry.getKey(), emlToEmail(new String(eml, StandardCharsets.UTF_8)),
+                            verificationCode, priority));
+                } catch (IOException | RuntimeException e) {
+                    continue;
+                }
+                compactedChannel.write(ByteBuffer.wrap(serializeRecord(APPEND_RECORD, entry.getKey(), entry.getValue())));
+            }
+            compactedChannel.force(true);
+        }
+        Files.move(compactedLog, logPath, REPLACE_EXISTING, ATOMIC_MOVE);
+        return records;
+    }
+
+    /**
+     * Method to append a verification email to the outbox, the method returns when the record has been forced on the
+     * disk, the delivery is executed by the workers
+     *
+     * @param email: the email to deliver
+     * @param verificationCode: the verification code attached to the verification email, null when nothing must be
+     * stored after the delivery
+     * @param priority: the priority of the delivery
+     *
+     * @throws IllegalStateException when the outbox has been closed
+     * @throws UncheckedIOException when an error occurred during the operations with the log file
+     */
+    void append(Email email, String verificationCode, SendPriority priority) {
+        if(closed)
+            throw new IllegalStateException("The outbox has been closed");
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream payloadOutput = new DataOutputStream(payload);
+            payloadOutput.writeByte(priority.ordinal());
+            payloadOutput.writeUTF(verificationCode != null ? verificationCode : "");
+            payloadOutput.write(emailToEML(email).getBytes(StandardCharsets.UTF_8));
+            OutboxRecord record;
+            long sequence;
+            synchronized (writeLock) {
+                if(!channel.isOpen())
+                    throw new IllegalStateException("The outbox has been closed");
+                record = new OutboxRecord(nextId++, email, verificationCode, priority);
+                channel.write(ByteBuffer.wrap(serializeRecord(APPEND_RECORD, record.id, payload.toByteArray())));
+                sequence = ++writtenSequence;
+                pendingRecords.put(record.id, record);
+            }
+            sync(sequence);
+            lanes.add(record, priority);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method to force on the disk the records written in the log until the sequence specified, the threads which wait
+     * during a force are committed all together by the next one
+     *
+     * @param sequence: the sequence of the record to force on the disk
+     *
+     * @throws IOException when an error occurred during the operations with the log file
+     */
+    private void sync(long sequence) throws IOException {
+        if(syncedSequence >= sequence)
+            return;
+        synchronized (syncLock) {
+            if(syncedSequence >= sequence)
+                return;
+            long targetSequence;
+            synchronized (writeLock) {
+                targetSequence = writtenSequence;
+            }
+            channel.force(false);
+            syncedSequence = targetSequence;
+        }
+    }
+
+    /**
+     * Method executed by each worker to deliver the records of the {@link #lanes} <br>
+     * No-any params required
+     */
+    private void deliverRecords() {
+        while (!closed || !lanes.isEmpty() || scheduledRetries.get() > 0) {
+            OutboxRecord record;
+            try {
+                record = lanes.poll(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if(record == null)
+                continue;
+            activeDeliveries.incrementAndGet();
+            try {
+                deliverRecord(record);
+            } finally {
+                lanes.done(record.priority);
+                activeDeliveries.decrementAndGet();
+                synchronized (lanes) {
+                    lanes.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to attempt the delivery of a record, when the delivery fails the record is scheduled again or, after
+     * {@link #MAX_DELIVERY_ATTEMPTS} failed attempts, dead-lettered
+     *
+     * @param record: the record to deliver
+     */
+    private void deliverRecord(OutboxRecord record) {
+        try {
+            delivery.deliver(record.email, record.verificationCode);
+        } catch (RuntimeException e) {
+            if(++record.attempts < MAX_DELIVERY_ATTEMPTS)
+                scheduleRetry(record);
+            else
+                deadLetter(record);
+            return;
+        }
+        markDone(record);
+    }
+
+    /**
+     * Method to schedule the next delivery attempt of a record with an exponential delay
+     *
+     * @param record: the record to deliver again
+     * @apiNote when the outbox is closing the record is left in the log to be replayed when the outbox is opened again
+     */
+    private void scheduleRetry(OutboxRecord record) {
+        scheduledRetries.incrementAndGet();
+        try {
+            retryScheduler.schedule(() -> {
+                lanes.add(record, record.priority);
+                scheduledRetries.decrementAndGet();
+            }, RETRY_DELAY << (record.attempts - 1), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            scheduledRetries.decrementAndGet();
+        }
+    }
+
+    /**
+     * Method to dead-letter a record whose delivery attempts all failed, the record is removed from the log and its
+     * recipients are notified to the {@link #deadLetterListener}
+     *
+     * @param record: the record to dead-letter
+     */
+    private void deadLetter(OutboxRecord record) {
+        markDone(record);
+        deadLetters.incrementAndGet();
+        if(deadLetterListener != null) {
+            try {
+                deadLetterListener.accept(record.recipients());
+            } catch (RuntimeException ignored) {
+                // a failure of the listener must not stop the worker
+            }
+        }
+    }
+
+    /**
+     * Method to mark a record as completed, delivered or dead-lettered
+     *
+     * @param record: the record completed
+     */
+    private void markDone(OutboxRecord record) {
+        synchronized (writeLock) {
+            pendingRecords.remove(record.id);
+            try {
+                channel.write(ByteBuffer.wrap(serializeRecord(DONE_RECORD, record.id, null)));
+                writtenSequence++;
+                if(pendingRecords.isEmpty() && channel.size() > COMPACTION_THRESHOLD)
+                    channel.truncate(0);
+            } catch (IOException ignored) {
+                // the record will be delivered again when the outbox is replayed
+            }
+        }
+    }
+
+    /**
+     * Method to serialize a record of the log
+     *
+     * @param type: the type of the record
+     * @param id: the identifier of the record
+     * @param payload: the payload of the record, null for the {@link #DONE_RECORD}
+     * @return the record serialized as byte array
+     */
+    private static byte[] serializeRecord(byte type, long id, byte[] payload) {
+        int payloadLength = payload != null ? payload.length + Integer.BYTES : 0;
+        ByteBuffer record = ByteBuffer.allocate(Byte.BYTES + Long.BYTES + payloadLength);
+        record.put(type).putLong(id);
+        if(payload != null)
+            record.putInt(payload.length).put(payload);
+        return record.array();
+    }
+
+    /**
+     * Method to close the outbox: the new records are rejected and the pending ones are drained within the timeout
+     *
+     * @param timeout: the time, in milliseconds, to wait for the pending records
+     * @return the recipients of the records not delivered as {@link List} of {@link String}
+     * @apiNote the records not delivered are kept in the log and replayed when the outbox is opened again
+     */
+    List<String> close(long timeout) {
+        closed = true;
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (lanes) {
+            long remaining = timeout;
+            while ((!lanes.isEmpty() || activeDeliveries.get() > 0 || scheduledRetries.get() > 0) && remaining > 0) {
+                try {
+                    lanes.wait(Math.min(remaining, 100));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+        retryScheduler.shutdownNow();
+        for (Thread worker : workers)
+            worker.interrupt();
+        List<String> undeliveredRecipients = new ArrayList<>();
+        synchronized (writeLock) {
+            try {
+                channel.force(false);
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        for (OutboxRecord record : pendingRecords.values())
+            undeliveredRecipients.addAll(record.recipients());
+        return undeliveredRecipients;
+    }
+
+    /**
+     * Method to get the number of the records not delivered yet <br>
+     * No-any params required
+     *
+     * @return the number of the records not delivered yet as int
+     */
+    int getPendingRecords() {
+        return pendingRecords.size();
+    }
+
+    /**
+     * Method to get the number of the records dead-lettered <br>
+     * No-any params required
+     *
+     * @return the number of the records dead-lettered as long
+     */
+    long getDeadLetters() {
+        return deadLetters.get();
+    }
+
+    /**
+     * The {@code OutboxRecord} class is useful to store a verification email appended to the outbox
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class OutboxRecord {
+
+        /**
+         * {@code id} the identifier of the record
+         */
+        private final long id;
+
+        /**
+         * {@code email} the email to deliver
+         */
+        private final Email email;
+
+        /**
+         * {@code verificationCode} the verification code attached to the verification email
+         */
+        private final String verificationCode;
+
+        /**
+         * {@code priority} the priority of the delivery
+         */
+        private final SendPriority priority;
+
+        /**
+         * {@code attempts} the number of the failed delivery attempts, updated only by the worker which owns the record
+         */
+        private volatile int attempts;
+
+        /**
+         * Constructor to init the {@link OutboxRecord} class
+         *
+         * @param id: the identifier of the record
+         * @param email: the email to deliver
+         * @param verificationCode: the verification code attached to the verification email
+         * @param priority: the priority of the delivery
+         *
+         */
+        private OutboxRecord(long id, Email email, String verificationCode, SendPriority priority) {
+            this.id = id;
+            this.email = email;
+            this.verificationCode = verificationCode;
+            this.priority = priority;
+        }
+
+        /**
+         * Method to get the recipients of the email <br>
+         * No-any params required
+         *
+         * @return the recipients of the email as {@link List} of {@link String}
+         */
+        private List<String> recipients() {
+            List<String> recipients = new ArrayList<>();
+            for (Recipient recipient : email.getToRecipients())
+                recipients.add(recipient.getAddress());
+            return recipients;
+        }
+
+    }
+
+}
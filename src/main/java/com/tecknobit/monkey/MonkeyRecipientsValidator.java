@@ -0,0 +1,205 @@
+package com.tecknobit.monkey;
+
+import java.net.IDN;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * The {@code MonkeyRecipientsValidator} class is useful to validate the recipients of the verification emails before
+ * their render and their delivery: the addresses are normalized, the duplicated and the malformed ones are dropped with
+ * the reason of their rejection
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeyRecipientsValidator {
+
+    /**
+     * {@code PARALLEL_VALIDATION_THRESHOLD} the number of the recipients from which the validation runs in parallel
+     */
+    public static final int PARALLEL_VALIDATION_THRESHOLD = 1000;
+
+    /**
+     * {@code EMPTY_ADDRESS} the reason of the rejection of an empty address
+     */
+    public static final String EMPTY_ADDRESS = "The address is empty";
+
+    /**
+     * {@code TOO_LONG_ADDRESS} the reason of the rejection of an address longer than the limits of the RFC 5321
+     */
+    public static final String TOO_LONG_ADDRESS = "The address is too long";
+
+    /**
+     * {@code MALFORMED_ADDRESS} the reason of the rejection of an address with a malformed syntax
+     */
+    public static final String MALFORMED_ADDRESS = "The address is malformed";
+
+    /**
+     * {@code DUPLICATED_ADDRESS} the reason of the rejection of an address already present in the recipients
+     */
+    public static final String DUPLICATED_ADDRESS = "The address is duplicated";
+
+    /**
+     * {@code MAX_ADDRESS_LENGTH} the max length of an address
+     */
+    private static final int MAX_ADDRESS_LENGTH = 254;
+
+    /**
+     * {@code MAX_LOCAL_PART_LENGTH} the max length of the local part of an address
+     */
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+
+    /**
+     * {@code ADDRESS_PATTERN} the pattern of the addresses normalized, compiled once, the single-label domains, e.g.
+     * {@code localhost}, are allowed
+     */
+    private static final Pattern ADDRESS_PATTERN = Pattern.compile(
+            "[a-z0-9!#$%&'*+/=?^_`{|}~-]+(?:\\.[a-z0-9!#$%&'*+/=?^_`{|}~-]+)*"
+                    + "@(?:[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?\\.)*[a-z0-9](?:[a-z0-9-]{0,61}[a-z0-9])?"
+    );
+
+    /**
+     * Constructor to init the {@link MonkeyRecipientsValidator} class <br>
+     * No-any params required
+     *
+     * @apiNote this class is not instantiable
+     */
+    private MonkeyRecipientsValidator() {
+    }
+
+    /**
+     * Method to normalize an address, so the case variants of the same address match, an internationalized domain is
+     * converted to its ASCII form, e.g. {@code xn--bcher-kva.de}
+     *
+     * @param address: the address to normalize
+     * @return the address normalized as {@link String}
+     * @apiNote when the domain cannot be converted it is kept as is, so the address is rejected as malformed by the
+     * validation
+     */
+    public static String normalize(String address) {
+        address = address.trim().toLowerCase(Locale.ROOT);
+        int atIndex = address.lastIndexOf('@');
+        if(atIndex < 0)
+            return address;
+        String domain = address.substring(atIndex + 1);
+        for (int j = 0; j < domain.length(); j++) {
+            if(domain.charAt(j) >= 0x80) {
+                try {
+                    return address.substring(0, atIndex + 1) + IDN.toASCII(domain).toLowerCase(Locale.ROOT);
+                } catch (IllegalArgumentException e) {
+                    return address;
+                }
+            }
+        }
+        return address;
+    }
+
+    /**
+     * Method to validate the recipients of a verification email
+     *
+     * @param recipients: the recipients to validate
+     * @return the result of the validation as {@link RecipientsValidation}
+     * @apiNote when the recipients are at least {@link #PARALLEL_VALIDATION_THRESHOLD} their syntax is validated in
+     * parallel, the order of the valid recipients is always kept
+     */
+    public static RecipientsValidation validate(String ... recipients) {
+        String[] normalizedRecipients = new String[recipients.length];
+        String[] rejectionReasons = new String[recipients.length];
+        IntStream indexes = IntStream.range(0, recipients.length);
+        if(recipients.length >= PARALLEL_VALIDATION_THRESHOLD)
+            indexes = indexes.parallel();
+        indexes.forEach(j -> {
+            String recipient = recipients[j];
+            if(recipient == null || recipient.isBlank()) {
+                rejectionReasons[j] = EMPTY_ADDRESS;
+                return;
+            }
+            String normalizedRecipient = normalize(recipient);
+            normalizedRecipients[j] = normalizedRecipient;
+            rejectionReasons[j] = checkSyntax(normalizedRecipient);
+        });
+        Set<String> validRecipients = new LinkedHashSet<>();
+        Map<String, String> invalidRecipients = new LinkedHashMap<>();
+        for (int j = 0; j < recipients.length; j++) {
+            String rejectionReason = rejectionReasons[j];
+            if(rejectionReason == null && !validRecipients.add(normalizedRecipients[j]))
+                rejectionReason = DUPLICATED_ADDRESS;
+            if(rejectionReason != null)
+                invalidRecipients.putIfAbsent(String.valueOf(recipients[j]), rejectionReason);
+        }
+        return new RecipientsValidation(List.copyOf(validRecipients), invalidRecipients);
+    }
+
+    /**
+     * Method to check the syntax of an address normalized
+     *
+     * @param address: the address to check
+     * @return the reason of the rejection of the address as {@link String}, null if the address is valid
+     */
+    private static String checkSyntax(String address) {
+        int atIndex = address.lastIndexOf('@');
+        if(address.length() > MAX_ADDRESS_LENGTH || atIndex > MAX_LOCAL_PART_LENGTH)
+            return TOO_LONG_ADDRESS;
+        if(!ADDRESS_PATTERN.matcher(address).matches())
+            return MALFORMED_ADDRESS;
+        return null;
+    }
+
+    /**
+     * The {@code RecipientsValidation} class is useful to store the result of the validation of the recipients
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    public static class RecipientsValidation {
+
+        /**
+         * {@code validRecipients} the valid recipients normalized and deduplicated
+         */
+        private final List<String> validRecipients;
+
+        /**
+         * {@code invalidRecipients} the invalid recipients, as provided, with the reason of their rejection
+         */
+        private final Map<String, String> invalidRecipients;
+
+        /**
+         * Constructor to init the {@link RecipientsValidation} class
+         *
+         * @param validRecipients: the valid recipients normalized and deduplicated
+         * @param invalidRecipients: the invalid recipients with the reason of their rejection
+         *
+         */
+        public RecipientsValidation(List<String> validRecipients, Map<String, String> invalidRecipients) {
+            this.validRecipients = validRecipients;
+            this.invalidRecipients = Collections.unmodifiableMap(invalidRecipients);
+        }
+
+        /**
+         * Method to get {@link #validRecipients} instance <br>
+         * No-any params required
+         *
+         * @return {@link #validRecipients} instance as {@link List} of {@link String}
+         */
+        public List<String> getValidRecipients() {
+            return validRecipients;
+        }
+
+        /**
+         * Method to get {@link #invalidRecipients} instance <br>
+         * No-any params required
+         *
+         * @return {@link #invalidRecipients} instance as {@link Map} of {@link String}
+         */
+        public Map<String, String> getInvalidRecipients() {
+            return invalidRecipients;
+        }
+
+    }
+
+}
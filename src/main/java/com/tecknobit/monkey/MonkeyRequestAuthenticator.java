@@ -0,0 +1,55 @@
+package com.tecknobit.monkey;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * The {@code MonkeyRequestAuthenticator} interface is useful to authenticate the requests received by a
+ * {@link MonkeyVerificationServer} before they reach the shared verifier
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyVerificationServer
+ */
+public interface MonkeyRequestAuthenticator {
+
+    /**
+     * {@code AUTHORIZATION_HEADER} the header which carries the credentials of a request
+     */
+    String AUTHORIZATION_HEADER = "Authorization";
+
+    /**
+     * {@code BEARER_SCHEME} the scheme of the credentials made by a shared access token
+     */
+    String BEARER_SCHEME = "Bearer ";
+
+    /**
+     * Method invoked to authenticate a request, before its body is read
+     *
+     * @param exchange: the exchange of the request
+     * @return whether the request is authenticated as boolean, the request is rejected with the 401 status otherwise
+     */
+    boolean authenticate(HttpExchange exchange);
+
+    /**
+     * Method to create an authenticator which accepts the requests carrying a shared access token in the
+     * {@link #AUTHORIZATION_HEADER} with the {@link #BEARER_SCHEME}
+     *
+     * @param accessToken: the shared access token
+     * @return the authenticator as {@link MonkeyRequestAuthenticator}
+     * @throws IllegalArgumentException when the access token is empty
+     * @apiNote the tokens are compared in constant time, so their content cannot be guessed from the response time
+     */
+    static MonkeyRequestAuthenticator bearerToken(String accessToken) {
+        if(accessToken == null || accessToken.isBlank())
+            throw new IllegalArgumentException("The access token cannot be empty");
+        byte[] expectedCredentials = (BEARER_SCHEME + accessToken).getBytes(StandardCharsets.UTF_8);
+        return exchange -> {
+            String credentials = exchange.getRequestHeaders().getFirst(AUTHORIZATION_HEADER);
+            return credentials != null
+                    && MessageDigest.isEqual(expectedCredentials, credentials.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.tecknobit.monkey;
+
+import org.simplejavamail.api.email.Email;
+import org.simplejavamail.api.mailer.Mailer;
+import org.simplejavamail.mailer.MailerBuilder;
+import org.simplejavamail.mailer.internal.MailerRegularBuilderImpl;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.tecknobit.monkey.MonkeyVerifier.WELL_KNOWN_SMTP_PORT;
+import static org.simplejavamail.api.mailer.config.TransportStrategy.SMTP;
+
+/**
+ * The {@code MonkeySMTPTransport} class is useful to deliver the verification emails with an SMTP server
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyTransport
+ */
+public class MonkeySMTPTransport implements MonkeyTransport {
+
+    /**
+     * {@code host} the host where the SMTP service is running
+     */
+    private final String host;
+
+    /**
+     * {@code smtpPort} the port where the SMTP service is running
+     */
+    private final int smtpPort;
+
+    /**
+     * {@code mailer} the manager to send the verification emails
+     */
+    private final Mailer mailer;
+
+    /**
+     * Constructor to init the {@link MonkeySMTPTransport} class
+     *
+     * @param host: the host where the SMTP service is running
+     * @param from: the user that will be considered the "From" in the verification email
+     *
+     */
+    public MonkeySMTPTransport(String host, String from) {
+        this(host, WELL_KNOWN_SMTP_PORT, from, null);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeySMTPTransport} class
+     *
+     * @param host: the host where the SMTP service is running
+     * @param smtpPort: the port where the SMTP service is running
+     * @param from: the user that will be considered the "From" in the verification email
+     * @param password: the password of the user, this must be the same used when the {@code from} has been added
+     *
+     */
+    public MonkeySMTPTransport(String host, int smtpPort, String from, String password) {
+        this.host = host;
+        this.smtpPort = smtpPort;
+        MailerRegularBuilderImpl mailerBuilder = MailerBuilder.withTransportStrategy(SMTP);
+        if(password != null)
+            mailerBuilder.withSMTPServer(host, smtpPort, from, password);
+        else
+            mailerBuilder.withSMTPServer(host, smtpPort, from);
+        mailer = mailerBuilder.buildMailer();
+    }
+
+    /**
+     * Method to deliver a verification email
+     *
+     * @param email: the email to deliver
+     */
+    @Override
+    public void send(Email email) {
+        mailer.sendMail(email);
+    }
+
+    /**
+     * Method to close the SMTP connections
+     *
+     * @param timeout: the time, in milliseconds, to wait for the connections to be closed
+     */
+    @Override
+    public void close(long timeout) {
+        try {
+            mailer.shutdownConnectionPool().get(Math.max(timeout, 0), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+        }
+    }
+
+    /**
+     * Method to get {@link #host} instance <br>
+     * No-any params required
+     *
+     * @return {@link #host} instance as {@link String}
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Method to get {@link #smtpPort} instance <br>
+     * No-any params required
+     *
+     * @return {@link #smtpPort} instance as int
+     */
+    public int getSmtpPort() {
+        return smtpPort;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.tecknobit.monkey;
+
+import jdk.jfr.*;
+
+/**
+ * The {@code MonkeySendEvent} class is useful to record in the JDK Flight Recorder the details of each verification
+ * email sent, with the durations of its phases
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @apiNote the event is disabled by default, it must be enabled in the recording settings, e.g.
+ * <b>com.tecknobit.monkey.Send#enabled=true</b>
+ */
+@Name("com.tecknobit.monkey.Send")
+@Label("Monkey Send")
+@Category("Monkey")
+@Description("A verification email sent by the MonkeyVerifier")
+@Enabled(false)
+@StackTrace(false)
+public class MonkeySendEvent extends Event {
+
+    /**
+     * {@code recipientDomain} the domain of the recipient of the email
+     */
+    @Label("Recipient Domain")
+    String recipientDomain;
+
+    /**
+     * {@code renderDuration} the duration of the render of the content of the email
+     */
+    @Label("Render Duration")
+    @Timespan
+    long renderDuration;
+
+    /**
+     * {@code buildDuration} the duration of the build of the email
+     */
+    @Label("Build Duration")
+    @Timespan
+    long buildDuration;
+
+    /**
+     * {@code deliveryDuration} the duration of the delivery with the transport, or of the append to the outbox when
+     * it is enabled
+     */
+    @Label("Delivery Duration")
+    @Timespan
+    long deliveryDuration;
+
+    /**
+     * {@code outcome} the outcome of the send
+     */
+    @Label("Outcome")
+    String outcome;
+
+}
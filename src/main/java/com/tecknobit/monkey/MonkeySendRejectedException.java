@@ -0,0 +1,27 @@
+package com.tecknobit.monkey;
+
+/**
+ * The {@code MonkeySendRejectedException} class is useful to signal that a verification email has been rejected
+ * without being delivered, for example because the relay is degraded or overloaded
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see RuntimeException
+ */
+public class MonkeySendRejectedException extends RuntimeException {
+
+    /**
+     * {@code serialVersionUID} the version of the serialized form of the exception
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor to init the {@link MonkeySendRejectedException} class
+     *
+     * @param message: the reason of the rejection
+     *
+     */
+    public MonkeySendRejectedException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.tecknobit.monkey;
+
+/**
+ * The {@code MonkeySendResult} class is useful to store the result of the send of a verification email to a recipient,
+ * so the recipients which have not received a verification code can be retried precisely
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeySendResult {
+
+    /**
+     * {@code SendStatus} list of available statuses of a send
+     */
+    public enum SendStatus {
+
+        /**
+         * {@code DELIVERED} the verification email has been delivered to the transport
+         */
+        DELIVERED,
+
+        /**
+         * {@code QUEUED} the verification email has been appended to the outbox and will be delivered by its workers
+         */
+        QUEUED,
+
+        /**
+         * {@code FAILED} the verification email has not been delivered because of an error
+         */
+        FAILED,
+
+        /**
+         * {@code THROTTLED} the verification email has been rejected because the relay is degraded or overloaded
+         */
+        THROTTLED,
+
+        /**
+         * {@code INVALID} the recipient has been dropped by the validation, so no verification email has been sent
+         */
+        INVALID
+
+    }
+
+    /**
+     * {@code recipient} the recipient of the verification email
+     */
+    private final String recipient;
+
+    /**
+     * {@code status} the status of the send
+     */
+    private final SendStatus status;
+
+    /**
+     * {@code reason} the reason why the verification email has not been sent, null if it has been sent
+     */
+    private final String reason;
+
+    /**
+     * {@code cause} the error which caused the failure of the send, null if not failed
+     */
+    private final Throwable cause;
+
+    /**
+     * Constructor to init the {@link MonkeySendResult} class
+     *
+     * @param recipient: the recipient of the verification email
+     * @param status: the status of the send
+     *
+     */
+    public MonkeySendResult(String recipient, SendStatus status) {
+        this(recipient, status, null, null);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeySendResult} class
+     *
+     * @param recipient: the recipient of the verification email
+     * @param status: the status of the send
+     * @param cause: the error which caused the failure of the send, its message is used as reason
+     *
+     */
+    public MonkeySendResult(String recipient, SendStatus status, Throwable cause) {
+        this(recipient, status, cause != null ? cause.getMessage() : null, cause);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeySendResult} class
+     *
+     * @param recipient: the recipient of the verification email
+     * @param status: the status of the send
+     * @param reason: the reason why the verification email has not been sent
+     * @param cause: the error which caused the failure of the send
+     *
+     */
+    public MonkeySendResult(String recipient, SendStatus status, String reason, Throwable cause) {
+        this.recipient = recipient;
+        this.status = status;
+        this.reason = reason;
+        this.cause = cause;
+    }
+
+    /**
+     * Method to get {@link #recipient} instance <br>
+     * No-any params required
+     *
+     * @return {@link #recipient} instance as {@link String}
+     */
+    public String getRecipient() {
+        return recipient;
+    }
+
+    /**
+     * Method to get {@link #status} instance <br>
+     * No-any params required
+     *
+     * @return {@link #status} instance as {@link SendStatus}
+     */
+    public SendStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Method to get {@link #reason} instance <br>
+     * No-any params required
+     *
+     * @return {@link #reason} instance as {@link String}
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Method to get {@link #cause} instance <br>
+     * No-any params required
+     *
+     * @return {@link #cause} instance as {@link Throwable}
+     */
+    public Throwable getCause() {
+        return cause;
+    }
+
+    /**
+     * Method to check whether the verification email has been sent, so the recipient received or will receive a
+     * verification code <br>
+     * No-any params required
+     *
+     * @return whether the verification email has been sent as boolean
+     */
+    public boolean isSent() {
+        return status == SendStatus.DELIVERED || status == SendStatus.QUEUED;
+    }
+
+    /**
+     * Method to check whether the send can be retried, so the recipient is valid, but has not received a verification
+     * code <br>
+     * No-any params required
+     *
+     * @return whether the send can be retried as boolean
+     */
+    public boolean isRetryable() {
+        return status == SendStatus.FAILED || status == SendStatus.THROTTLED;
+    }
+
+}
@@ -3,6 +3,9 @@ package com.tecknobit.monkey;
 import com.tecknobit.apimanager.formatters.JsonHelper;
 import org.json.JSONObject;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static com.tecknobit.monkey.MonkeyTemplate.MonkeyTemplateTag.*;
 
 /**
@@ -70,7 +73,12 @@ public class MonkeyTemplate {
         /**
          * {@code VERIFICATION_CODE_TAG} tag to replace with the verification code generated
          */
-        VERIFICATION_CODE_TAG("verification_code");
+        VERIFICATION_CODE_TAG("verification_code"),
+
+        /**
+         * {@code MAGIC_LINK_TAG} tag to replace with the magic link signed to verify the email
+         */
+        MAGIC_LINK_TAG("magic_link");
 
         /**
          * {@code tag} the tag value
@@ -144,6 +152,33 @@ public class MonkeyTemplate {
         this.monkeyTextTemplate = monkeyTextTemplate;
     }
 
+    /**
+     * Method to get the values of the tags filled by this template <br>
+     * No-any params required
+     *
+     * @return the values of the tags as {@link Map} of {@link String}, the keys are the values of the tags
+     */
+    public Map<String, String> getTagsValues() {
+        Map<String, String> tagsValues = new HashMap<>();
+        if(colorsScheme != null) {
+            tagsValues.put(PRIMARY_COLOR_TAG.getValue(), colorsScheme.getPrimaryColor());
+            tagsValues.put(SECONDARY_COLOR_TAG.getValue(), colorsScheme.getSecondaryColor());
+            tagsValues.put(TERTIARY_COLOR_TAG.getValue(), colorsScheme.getTertiaryColor());
+            tagsValues.put(TEXT_COLOR_TAG.getValue(), colorsScheme.getTextsColor());
+        }
+        if(monkeyLogo != null) {
+            tagsValues.put(LOGO_LINK_TAG.getValue(), monkeyLogo.getLogoLink());
+            tagsValues.put(LOGO_URL_TAG.getValue(), monkeyLogo.getLogoUrl());
+        }
+        if(monkeyTextTemplate != null) {
+            tagsValues.put(TITLE_TAG.getValue(), monkeyTextTemplate.getTitle());
+            tagsValues.put(DESCRIPTION_TAG.getValue(), monkeyTextTemplate.getDescription());
+            tagsValues.put(FOOTER_TEXT_TAG.getValue(), monkeyTextTemplate.getFooterText());
+            tagsValues.put(REASONS_TEXT_TAG.getValue(), monkeyTextTemplate.getReasonsText());
+        }
+        return tagsValues;
+    }
+
     /**
      * Method to get {@link #colorsScheme} instance <br>
      * No-any params required
@@ -439,10 +474,10 @@ public class MonkeyTemplate {
          *
          */
         public MonkeyTextTemplate(String title, String description, String footerText, String reasonsText) {
-            this.title = title.replaceAll("\\n", "<br>");
-            this.description = description.replaceAll("\\n", "<br>");
-            this.footerText = footerText.replaceAll("\\n", "<br>");
-            this.reasonsText = reasonsText.replaceAll("\\n", "<br>");
+            this.title = title.replace("\n", "<br>");
+            this.description = description.replace("\n", "<br>");
+            this.footerText = footerText.replace("\n", "<br>");
+            this.reasonsText = reasonsText.replace("\n", "<br>");
         }
 
         /**
@@ -0,0 +1,174 @@
+package com.tecknobit.monkey;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle.Control;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static java.util.ResourceBundle.Control.FORMAT_DEFAULT;
+
+/**
+ * The {@code MonkeyTemplateBundle} class is useful to manage the variants of a template for each locale, each variant
+ * is loaded lazily and compiled once, then it is cached, so the locale-specific render cost is paid once per locale
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyTemplate
+ * @see MonkeyCompiledTemplate
+ */
+public class MonkeyTemplateBundle {
+
+    /**
+     * {@code DEFAULT_MAX_CACHED_LOCALES} the default max number of the variants kept compiled in the cache
+     */
+    public static final int DEFAULT_MAX_CACHED_LOCALES = 32;
+
+    /**
+     * {@code LOCALES_CONTROL} the control used to create the fallback chain of a locale
+     */
+    private static final Control LOCALES_CONTROL = Control.getNoFallbackControl(FORMAT_DEFAULT);
+
+    /**
+     * {@code template} the base template where the variants are bound
+     */
+    private final MonkeyCompiledTemplate template;
+
+    /**
+     * {@code defaultLocale} the locale used when no variant matches the locale requested
+     */
+    private final Locale defaultLocale;
+
+    /**
+     * {@code variants} the loaders of the variants of the template for each locale
+     */
+    private final ConcurrentHashMap<Locale, Supplier<MonkeyTemplate>> variants;
+
+    /**
+     * {@code compiledVariants} the cache of the variants compiled, the least recently used ones are evicted
+     */
+    private final Map<Locale, MonkeyCompiledTemplate> compiledVariants;
+
+    /**
+     * Constructor to init the {@link MonkeyTemplateBundle} class with the default monkey template
+     *
+     * @param defaultLocale: the locale used when no variant matches the locale requested
+     *
+     */
+    public MonkeyTemplateBundle(Locale defaultLocale) {
+        this(MonkeyVerifier.getDefaultTemplate(), defaultLocale, DEFAULT_MAX_CACHED_LOCALES);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyTemplateBundle} class
+     *
+     * @param template: the base template where the variants are bound
+     * @param defaultLocale: the locale used when no variant matches the locale requested
+     * @param maxCachedLocales: the max number of the variants kept compiled in the cache
+     *
+     * @throws IllegalArgumentException when the max number of the variants cached is not positive
+     */
+    public MonkeyTemplateBundle(MonkeyCompiledTemplate template, Locale defaultLocale, int maxCachedLocales) {
+        if(maxCachedLocales <= 0)
+            throw new IllegalArgumentException("The max number of the cached locales must be greater than zero");
+        this.template = template;
+        this.defaultLocale = defaultLocale;
+        variants = new ConcurrentHashMap<>();
+        compiledVariants = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Locale, MonkeyCompiledTemplate> eldest) {
+                return size() > maxCachedLocales;
+            }
+        };
+    }
+
+    /**
+     * Method to add the variant of the template for a locale
+     *
+     * @param locale: the locale of the variant
+     * @param monkeyTemplate: the variant of the template
+     *
+     */
+    public void addLocale(Locale locale, MonkeyTemplate monkeyTemplate) {
+        addLocale(locale, () -> monkeyTemplate);
+    }
+
+    /**
+     * Method to add the variant of the template for a locale
+     *
+     * @param locale: the locale of the variant
+     * @param variantLoader: the loader of the variant, invoked the first time the variant is used
+     *
+     */
+    public void addLocale(Locale locale, Supplier<MonkeyTemplate> variantLoader) {
+        variants.put(locale, variantLoader);
+        synchronized (compiledVariants) {
+            compiledVariants.remove(locale);
+        }
+    }
+
+    /**
+     * Method to get the template compiled for a locale, the fallback chain of the locale is followed until a variant
+     * is found, e.g. it_IT -> it -> default locale
+     *
+     * @param locale: the locale of the template
+     * @return the template compiled as {@link MonkeyCompiledTemplate}
+     * @throws IllegalArgumentException when no variant is available for the locale and the default locale
+     */
+    public MonkeyCompiledTemplate getTemplate(Locale locale) {
+        Locale variantLocale = resolveLocale(locale);
+        if(variantLocale == null)
+            variantLocale = resolveLocale(defaultLocale);
+        if(variantLocale == null)
+            throw new IllegalArgumentException("No template is available for the " + locale + " locale");
+        MonkeyCompiledTemplate compiledVariant;
+        synchronized (compiledVariants) {
+            compiledVariant = compiledVariants.get(variantLocale);
+        }
+        if(compiledVariant == null) {
+            compiledVariant = template.bind(variants.get(variantLocale).get().getTagsValues());
+            synchronized (compiledVariants) {
+                compiledVariants.putIfAbsent(variantLocale, compiledVariant);
+            }
+        }
+        return compiledVariant;
+    }
+
+    /**
+     * Method to find the first locale of the fallback chain which has a variant
+     *
+     * @param locale: the locale to resolve
+     * @return the locale of the variant as {@link Locale}, null if no variant is available
+     */
+    private Locale resolveLocale(Locale locale) {
+        List<Locale> candidateLocales = LOCALES_CONTROL.getCandidateLocales("", locale);
+        for (Locale candidateLocale : candidateLocales)
+            if(variants.containsKey(candidateLocale))
+                return candidateLocale;
+        return null;
+    }
+
+    /**
+     * Method to get {@link #defaultLocale} instance <br>
+     * No-any params required
+     *
+     * @return {@link #defaultLocale} instance as {@link Locale}
+     */
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Method to get the number of the variants currently compiled in the cache <br>
+     * No-any params required
+     *
+     * @return the number of the variants currently compiled as int
+     */
+    public int getCachedLocales() {
+        synchronized (compiledVariants) {
+            return compiledVariants.size();
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.tecknobit.monkey;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.tecknobit.monkey.MonkeyCompiledTemplate.COMPILED_TEMPLATE_EXTENSION;
+
+/**
+ * The {@code MonkeyTemplateCompiler} class is useful to compile at build time the <b>.html</b> templates of a
+ * directory into their {@link MonkeyCompiledTemplate} binary form
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @apiNote this class is executed by the <b>compileMonkeyTemplates</b> Gradle task
+ */
+public class MonkeyTemplateCompiler {
+
+    /**
+     * {@code TEMPLATE_EXTENSION} the extension of the templates to compile
+     */
+    public static final String TEMPLATE_EXTENSION = ".html";
+
+    /**
+     * Constructor to init the {@link MonkeyTemplateCompiler} class <br>
+     * No-any params required
+     *
+     * @apiNote this class is not instantiable
+     */
+    private MonkeyTemplateCompiler() {
+    }
+
+    /**
+     * Method to compile the templates of a directory
+     *
+     * @param args: the directory of the templates to compile and the directory where write the templates compiled
+     *
+     * @throws IOException when an error occurred during the operations with the templates
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 2)
+            throw new IllegalArgumentException("Usage: MonkeyTemplateCompiler <templates_dir> <output_dir>");
+        compileTemplates(Path.of(args[0]), Path.of(args[1]));
+    }
+
+    /**
+     * Method to compile the templates of a directory
+     *
+     * @param templatesDirectory: the directory of the templates to compile
+     * @param outputDirectory: the directory where write the templates compiled
+     *
+     * @throws IOException when an error occurred during the operations with the templates
+     * @apiNote each template keeps its relative path, e.g. default_monkey_template.html is compiled into
+     * default_monkey_template.mkt
+     */
+    public static void compileTemplates(Path templatesDirectory, Path outputDirectory) throws IOException {
+        List<Path> templates;
+        try (Stream<Path> files = Files.walk(templatesDirectory)) {
+            templates = files.filter(file -> file.toString().endsWith(TEMPLATE_EXTENSION)).toList();
+        }
+        for (Path template : templates) {
+            String relativePath = templatesDirectory.relativize(template).toString();
+            Path compiledTemplate = outputDirectory.resolve(relativePath.substring(0,
+                    relativePath.length() - TEMPLATE_EXTENSION.length()) + COMPILED_TEMPLATE_EXTENSION);
+            Files.createDirectories(compiledTemplate.getParent());
+            try (OutputStream output = Files.newOutputStream(compiledTemplate)) {
+                MonkeyCompiledTemplate.compile(Files.readString(template)).writeTo(output);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeyVerifier.VerificationCodeType;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code MonkeyTimeBasedCodes} class is useful to derive the verification codes from an HMAC of the email and of
+ * the current time-step, in the same way of the TOTP codes: a code can be verified recomputing it, so no verification
+ * email sent must be stored
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+class MonkeyTimeBasedCodes {
+
+    /**
+     * {@code HMAC_ALGORITHM} the algorithm used to derive the codes
+     */
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /**
+     * {@code CODE_LENGTH} the length of the codes derived
+     */
+    private static final int CODE_LENGTH = 6;
+
+    /**
+     * {@code DIGITS} the alphabet of the {@link VerificationCodeType#NUMBERS} codes
+     */
+    private static final String DIGITS = "0123456789";
+
+    /**
+     * {@code LETTERS} the alphabet of the {@link VerificationCodeType#CHARACTERS} codes
+     */
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    /**
+     * {@code key} the secret key used to derive the codes
+     */
+    private final SecretKeySpec key;
+
+    /**
+     * {@code alphabet} the alphabet of the codes derived
+     */
+    private final String alphabet;
+
+    /**
+     * {@code timeStep} the duration, in milliseconds, of each time-step
+     */
+    private final long timeStep;
+
+    /**
+     * {@code usedCodes} the codes already verified with their time-step, null when the codes can be verified more
+     * times within their window
+     */
+    private final Map<String, Long> usedCodes;
+
+    /**
+     * {@code failedAttempts} the failed attempts of the emails, null when the attempts are not limited
+     */
+    private final MonkeyFailedAttempts failedAttempts;
+
+    /**
+     * Constructor to init the {@link MonkeyTimeBasedCodes} class
+     *
+     * @param secret: the secret used to derive the codes
+     * @param verificationCodeType: the type of the codes to derive
+     * @param timeStep: the duration, in milliseconds, of each time-step
+     * @param maxUsedCodes: the max number of the used codes remembered to reject their reuse, zero to not remember them
+     * @param maxFailedAttempts: the max number of the failed attempts of an email within the validity of its code, zero
+     * to not limit them
+     *
+     */
+    MonkeyTimeBasedCodes(byte[] secret, VerificationCodeType verificationCodeType, long timeStep, int maxUsedCodes,
+                         int maxFailedAttempts) {
+        key = new SecretKeySpec(secret.clone(), HMAC_ALGORITHM);
+        alphabet = switch (verificationCodeType) {
+            case NUMBERS -> DIGITS;
+            case CHARACTERS -> LETTERS;
+            case ALPHANUMERIC -> DIGITS + LETTERS;
+        };
+        this.timeStep = timeStep;
+        if(maxUsedCodes > 0) {
+            usedCodes = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > maxUsedCodes;
+                }
+            };
+        } else
+            usedCodes = null;
+        if(maxFailedAttempts > 0)
+            failedAttempts = new MonkeyFailedAttempts(maxFailedAttempts, 1);
+        else
+            failedAttempts = null;
+    }
+
+    /**
+     * Method to derive the code of an email for the current time-step
+     *
+     * @param email: the email to send the code
+     * @return the code as {@link String}
+     * @apiNote a resend within the same time-step derives the same code, so that code is removed from the used codes
+     * and can be verified once again
+     */
+    String generateCode(String email) {
+        long currentTimeStep = currentTimeStep();
+        String code = deriveCode(email, currentTimeStep);
+        if(usedCodes != null) {
+            synchronized (usedCodes) {
+                usedCodes.remove(usedCodeKey(email, currentTimeStep, code));
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Method to verify a code recomputing it for the current and the previous time-steps
+     *
+     * @param email: the email of the user
+     * @param code: the code sent by the user
+     * @return whether the code is valid as boolean
+     * @apiNote when the email exceeded the max number of the failed attempts its codes are rejected until the code of
+     * its first failed attempt expires
+     */
+    boolean verifyCode(String email, String code) {
+        long currentTimeStep = currentTimeStep();
+        if(failedAttempts != null && !failedAttempts.tryAttempt(email, currentTimeStep))
+            return false;
+        boolean verified = matchCode(email, code, currentTimeStep);
+        if(verified && failedAttempts != null)
+            failedAttempts.reset(email);
+        return verified;
+    }
+
+    /**
+     * Method to match a code with the codes of the current and the previous time-steps, the used codes are rejected
+     *
+     * @param email: the email of the user
+     * @param code: the code sent by the user
+     * @param currentTimeStep: the current time-step
+     * @return whether the code matches as boolean
+     */
+    private boolean matchCode(String email, String code, long currentTimeStep) {
+        if(code == null)
+            return false;
+        byte[] userCode = code.getBytes(StandardCharsets.UTF_8);
+        for (long step = currentTimeStep; step >= currentTimeStep - 1; step--) {
+            if(MessageDigest.isEqual(deriveCode(email, step).getBytes(StandardCharsets.UTF_8), userCode)) {
+                if(usedCodes == null)
+                    return true;
+                synchronized (usedCodes) {
+                    // the codes are used in time order, so the expired ones are at the head
+                    for (Iterator<Long> iterator = usedCodes.values().iterator(); iterator.hasNext(); ) {
+                        if(iterator.next() >= currentTimeStep - 1)
+                            break;
+                        iterator.remove();
+                    }
+                    return usedCodes.putIfAbsent(usedCodeKey(email, step, code), step) == null;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to get the key of a used code
+     *
+     * @param email: the email of the code
+     * @param step: the time-step of the code
+     * @param code: the code used
+     * @return the key of the used code as {@link String}
+     */
+    private static String usedCodeKey(String email, long step, String code) {
+        return email + ":" + step + ":" + code;
+    }
+
+    /**
+     * Method to derive the code of an email for a time-step
+     *
+     * @param email: the email to send the code
+     * @param step: the time-step of the code
+     * @return the code as {@link String}
+     */
+    private String deriveCode(String email, long step) {
+        byte[] digest;
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(ByteBuffer.allocate(Long.BYTES).putLong(step).array());
+            digest = mac.doFinal(email.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder code = new StringBuilder(CODE_LENGTH);
+        if(alphabet.equals(DIGITS)) {
+            int offset = digest[digest.length - 1] & 0x0F;
+            int binaryCode = ByteBuffer.wrap(digest, offset, Integer.BYTES).getInt() & 0x7FFFFFFF;
+            code.append(binaryCode % 1_000_000);
+            while (code.length() < CODE_LENGTH)
+                code.insert(0, '0');
+        } else {
+            for (int j = 0; j < CODE_LENGTH; j++)
+                code.append(alphabet.charAt((digest[j] & 0xFF) % alphabet.length()));
+        }
+        return code.toString();
+    }
+
+    /**
+     * Method to get the current time-step <br>
+     * No-any params required
+     *
+     * @return the current time-step as long
+     */
+    private long currentTimeStep() {
+        return System.currentTimeMillis() / timeStep;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.tecknobit.monkey;
+
+import org.simplejavamail.api.email.Email;
+
+/**
+ * The {@code MonkeyTransport} interface is useful to deliver the verification emails built by the
+ * {@link MonkeyVerifier}, so the verifier can work with a real SMTP server or without any network
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeySMTPTransport
+ * @see MonkeyInMemoryTransport
+ * @see MonkeyFileDropTransport
+ */
+public interface MonkeyTransport {
+
+    /**
+     * Method to deliver a verification email
+     *
+     * @param email: the email to deliver
+     */
+    void send(Email email);
+
+    /**
+     * Method to close the transport releasing its resources
+     *
+     * @param timeout: the time, in milliseconds, to wait for the resources to be released
+     */
+    default void close(long timeout) {
+    }
+
+}
@@ -0,0 +1,221 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeySendResult.SendStatus;
+import com.tecknobit.monkey.MonkeyVerifier.SendPriority;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tecknobit.monkey.MonkeyRequestAuthenticator.AUTHORIZATION_HEADER;
+import static com.tecknobit.monkey.MonkeyRequestAuthenticator.BEARER_SCHEME;
+import static com.tecknobit.monkey.MonkeyVerificationServer.*;
+import static com.tecknobit.monkey.MonkeyVerifier.SendPriority.NORMAL;
+
+/**
+ * The {@code MonkeyVerificationClient} class is useful to send the verification emails and verify the codes through a
+ * {@link MonkeyVerificationServer}, so several services share the same verifier. <br>
+ * The connections to the server are kept alive and reused between the requests, a client can be shared between
+ * threads
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyVerificationServer
+ */
+public class MonkeyVerificationClient {
+
+    /**
+     * {@code DEFAULT_TIMEOUT} the default max time to wait for a response of the server
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * {@code sendUri} the URI of the {@link MonkeyVerificationServer#SEND_ENDPOINT}
+     */
+    private final URI sendUri;
+
+    /**
+     * {@code verifyUri} the URI of the {@link MonkeyVerificationServer#VERIFY_ENDPOINT}
+     */
+    private final URI verifyUri;
+
+    /**
+     * {@code timeout} the max time to wait for a response of the server
+     */
+    private final Duration timeout;
+
+    /**
+     * {@code httpClient} the HTTP client which keeps the connections to the server
+     */
+    private final HttpClient httpClient;
+
+    /**
+     * {@code accessToken} the access token shared with the server, null when the server does not authenticate the
+     * requests
+     */
+    private final String accessToken;
+
+    /**
+     * Constructor to init the {@link MonkeyVerificationClient} class with the {@link #DEFAULT_TIMEOUT}
+     *
+     * @param serverUrl: the URL of the server, e.g. http://localhost:8080
+     *
+     */
+    public MonkeyVerificationClient(String serverUrl) {
+        this(URI.create(serverUrl), DEFAULT_TIMEOUT, null);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyVerificationClient} class with the {@link #DEFAULT_TIMEOUT}
+     *
+     * @param serverUrl: the URL of the server, e.g. http://localhost:8080
+     * @param accessToken: the access token shared with the server
+     *
+     */
+    public MonkeyVerificationClient(String serverUrl, String accessToken) {
+        this(URI.create(serverUrl), DEFAULT_TIMEOUT, accessToken);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyVerificationClient} class
+     *
+     * @param serverUri: the URI of the server, e.g. http://localhost:8080
+     * @param timeout: the max time to wait for a response of the server
+     * @param accessToken: the access token shared with the server, null when the server does not authenticate the
+     * requests
+     *
+     */
+    public MonkeyVerificationClient(URI serverUri, Duration timeout, String accessToken) {
+        sendUri = serverUri.resolve(SEND_ENDPOINT);
+        verifyUri = serverUri.resolve(VERIFY_ENDPOINT);
+        this.timeout = timeout;
+        this.accessToken = accessToken;
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Method to send a verification email with a plain text body
+     *
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param emailBody: the plain body text of the email
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @throws IOException when the server cannot be reached or the request failed
+     * @see MonkeyVerifier#sendPlainVerificationEmail(String, String, String, String...)
+     */
+    public List<MonkeySendResult> sendPlainVerificationEmail(String fromText, String emailSubject, String emailBody,
+                                                             String ... recipients) throws IOException {
+        return sendPlainVerificationEmail(NORMAL, fromText, emailSubject, emailBody, recipients);
+    }
+
+    /**
+     * Method to send a verification email with a plain text body
+     *
+     * @param priority: the priority of the send
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param emailBody: the plain body text of the email
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @throws IOException when the server cannot be reached or the request failed
+     * @see MonkeyVerifier#sendPlainVerificationEmail(SendPriority, String, String, String, String...)
+     */
+    public List<MonkeySendResult> sendPlainVerificationEmail(SendPriority priority, String fromText,
+                                                             String emailSubject, String emailBody,
+                                                             String ... recipients) throws IOException {
+        JSONObject request = new JSONObject()
+                .put(PRIORITY_KEY, priority.name())
+                .put(FROM_TEXT_KEY, fromText)
+                .put(SUBJECT_KEY, emailSubject)
+                .put(BODY_KEY, emailBody)
+                .put(RECIPIENTS_KEY, new JSONArray(List.of(recipients)));
+        JSONArray results = post(sendUri, request).getJSONArray(RESULTS_KEY);
+        List<MonkeySendResult> sendResults = new ArrayList<>(results.length());
+        for (int j = 0; j < results.length(); j++) {
+            JSONObject result = results.getJSONObject(j);
+            sendResults.add(new MonkeySendResult(result.getString(RECIPIENT_KEY),
+                    SendStatus.valueOf(result.getString(STATUS_KEY)), result.optString(REASON_KEY, null), null));
+        }
+        return sendResults;
+    }
+
+    /**
+     * Method to verify the code sent by the user
+     *
+     * @param userEmail: the email of the user
+     * @param userCode: the verification code sent by the user
+     *
+     * @return whether the code has been verified as boolean
+     * @throws IOException when the server cannot be reached or the request failed
+     */
+    public boolean verifyCodeSent(String userEmail, String userCode) throws IOException {
+        JSONObject request = new JSONObject()
+                .put(EMAIL_KEY, userEmail)
+                .put(CODE_KEY, userCode);
+        return post(verifyUri, request).getBoolean(VERIFIED_KEY);
+    }
+
+    /**
+     * Method to verify the code sent by the user
+     *
+     * @param userEmail: the email of the user
+     * @param userCode: the verification code sent by the user
+     * @param actions: the actions to execute after the verification
+     *
+     * @throws IOException when the server cannot be reached or the request failed
+     */
+    public void verifyCodeSent(String userEmail, String userCode, MonkeyVerificationActions actions) throws IOException {
+        if(verifyCodeSent(userEmail, userCode))
+            actions.onSuccess();
+        else
+            actions.onFailure();
+    }
+
+    /**
+     * Method to send a request to an endpoint of the server
+     *
+     * @param endpoint: the URI of the endpoint
+     * @param request: the request to send
+     *
+     * @return the response of the server as {@link JSONObject}
+     * @throws IOException when the server cannot be reached or the request failed
+     * @throws IllegalArgumentException when the request has been rejected by the server as not valid
+     */
+    private JSONObject post(URI endpoint, JSONObject request) throws IOException {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(request.toString()));
+        if(accessToken != null)
+            requestBuilder.header(AUTHORIZATION_HEADER, BEARER_SCHEME + accessToken);
+        HttpRequest httpRequest = requestBuilder.build();
+        HttpResponse<String> httpResponse;
+        try {
+            httpResponse = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the response of the server");
+        }
+        JSONObject response = new JSONObject(httpResponse.body());
+        int status = httpResponse.statusCode();
+        if(status == 400)
+            throw new IllegalArgumentException(response.optString(ERROR_KEY));
+        if(status != 200)
+            throw new IOException("The request failed with the status " + status + ": " + response.optString(ERROR_KEY));
+        return response;
+    }
+
+}
@@ -0,0 +1,384 @@
+package com.tecknobit.monkey;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tecknobit.monkey.MonkeyVerifier.SendPriority;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * The {@code MonkeyVerificationServer} class is useful to share a single {@link MonkeyVerifier}, with its codes store
+ * and its transport, between several services: the sends and the verifications are exposed as HTTP/JSON endpoints
+ * served by the HTTP server of the JDK, which keeps the connections alive and serves the pipelined requests of a
+ * connection in order. <br>
+ * The endpoints accept only {@code POST} requests:
+ * <ul>
+ *     <li>
+ *         {@link #SEND_ENDPOINT} -> {@code {"from_text": "", "subject": "", "body": "", "recipients": [], "priority": "NORMAL"}},
+ *         responds with {@code {"results": [{"recipient": "", "status": "", "reason": ""}]}}
+ *     </li>
+ *     <li>
+ *         {@link #VERIFY_ENDPOINT} -> {@code {"email": "", "code": ""}}, responds with {@code {"verified": true}}
+ *     </li>
+ * </ul>
+ * The requests are authenticated by a {@link MonkeyRequestAuthenticator} before their body is read, and the bodies
+ * longer than {@link #MAX_REQUEST_BODY_SIZE} are rejected
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @see MonkeyVerificationClient
+ */
+public class MonkeyVerificationServer implements AutoCloseable {
+
+    /**
+     * {@code SEND_ENDPOINT} the endpoint to send the verification emails
+     */
+    public static final String SEND_ENDPOINT = "/monkey/send";
+
+    /**
+     * {@code VERIFY_ENDPOINT} the endpoint to verify the codes sent by the users
+     */
+    public static final String VERIFY_ENDPOINT = "/monkey/verify";
+
+    /**
+     * {@code FROM_TEXT_KEY} the key of the text for the "from" section of the email
+     */
+    public static final String FROM_TEXT_KEY = "from_text";
+
+    /**
+     * {@code SUBJECT_KEY} the key of the subject of the verification email
+     */
+    public static final String SUBJECT_KEY = "subject";
+
+    /**
+     * {@code BODY_KEY} the key of the plain body text of the verification email
+     */
+    public static final String BODY_KEY = "body";
+
+    /**
+     * {@code RECIPIENTS_KEY} the key of the recipients of the verification email
+     */
+    public static final String RECIPIENTS_KEY = "recipients";
+
+    /**
+     * {@code PRIORITY_KEY} the key of the priority of the send, {@link SendPriority#NORMAL} if not filled
+     */
+    public static final String PRIORITY_KEY = "priority";
+
+    /**
+     * {@code RESULTS_KEY} the key of the results of the sends
+     */
+    public static final String RESULTS_KEY = "results";
+
+    /**
+     * {@code RECIPIENT_KEY} the key of the recipient of a result
+     */
+    public static final String RECIPIENT_KEY = "recipient";
+
+    /**
+     * {@code STATUS_KEY} the key of the status of a result
+     */
+    public static final String STATUS_KEY = "status";
+
+    /**
+     * {@code REASON_KEY} the key of the reason of a result
+     */
+    public static final String REASON_KEY = "reason";
+
+    /**
+     * {@code EMAIL_KEY} the key of the email of the user to verify
+     */
+    public static final String EMAIL_KEY = "email";
+
+    /**
+     * {@code CODE_KEY} the key of the verification code sent by the user
+     */
+    public static final String CODE_KEY = "code";
+
+    /**
+     * {@code VERIFIED_KEY} the key of the outcome of the verification
+     */
+    public static final String VERIFIED_KEY = "verified";
+
+    /**
+     * {@code ERROR_KEY} the key of the reason of a request failed
+     */
+    public static final String ERROR_KEY = "error";
+
+    /**
+     * {@code DEFAULT_BACKLOG} the default max number of the connections waiting to be accepted
+     */
+    public static final int DEFAULT_BACKLOG = 128;
+
+    /**
+     * {@code MAX_REQUEST_BODY_SIZE} the max size, in bytes, of the body of a request
+     */
+    public static final int MAX_REQUEST_BODY_SIZE = 64 * 1024;
+
+    /**
+     * {@code INTERNAL_ERROR} the reason sent when a request failed for an unexpected error, the error itself is not
+     * sent to the client
+     */
+    private static final String INTERNAL_ERROR = "Internal server error";
+
+    /**
+     * {@code STOP_DELAY} the max time, in seconds, to wait for the requests in progress when the server is closed
+     */
+    private static final int STOP_DELAY = 1;
+
+    /**
+     * {@code verifier} the verifier shared by the server
+     */
+    private final MonkeyVerifier verifier;
+
+    /**
+     * {@code httpServer} the HTTP server which serves the endpoints
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * {@code ownedExecutor} the executor created by the server, null when the executor has been provided
+     */
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * {@code authenticator} the authenticator of the requests, null when the requests are not authenticated
+     */
+    private final MonkeyRequestAuthenticator authenticator;
+
+    /**
+     * Constructor to init the {@link MonkeyVerificationServer} class listening only on the loopback address with the
+     * default executor, the requests are not authenticated
+     *
+     * @param verifier: the verifier shared by the server
+     * @param port: the port where the server listens, 0 to choose a free one
+     *
+     * @throws IOException when the server cannot be bound to the port
+     * @apiNote the default executor uses a virtual thread for each request when the JDK supports them, else a cached
+     * pool of daemon threads
+     */
+    public MonkeyVerificationServer(MonkeyVerifier verifier, int port) throws IOException {
+        this(verifier, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), null, null);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyVerificationServer} class listening only on the loopback address with the
+     * default executor, the requests must carry a shared access token
+     *
+     * @param verifier: the verifier shared by the server
+     * @param port: the port where the server listens, 0 to choose a free one
+     * @param accessToken: the access token shared with the clients
+     *
+     * @throws IOException when the server cannot be bound to the port
+     * @throws IllegalArgumentException when the access token is empty
+     * @see MonkeyRequestAuthenticator#bearerToken(String)
+     */
+    public MonkeyVerificationServer(MonkeyVerifier verifier, int port, String accessToken) throws IOException {
+        this(verifier, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), null,
+                MonkeyRequestAuthenticator.bearerToken(accessToken));
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyVerificationServer} class
+     *
+     * @param verifier: the verifier shared by the server
+     * @param address: the address where the server listens
+     * @param executor: the executor which handles the requests, null to use the default executor
+     * @param authenticator: the authenticator of the requests, null to not authenticate them
+     *
+     * @throws IOException when the server cannot be bound to the address
+     * @apiNote when the server listens on an address reachable by other hosts an authenticator should be used, else
+     * anyone can send emails through the verifier and try to guess the codes
+     */
+    public MonkeyVerificationServer(MonkeyVerifier verifier, InetSocketAddress address, Executor executor,
+                                    MonkeyRequestAuthenticator authenticator) throws IOException {
+        this.verifier = verifier;
+        this.authenticator = authenticator;
+        httpServer = HttpServer.create(address, DEFAULT_BACKLOG);
+        httpServer.createContext(SEND_ENDPOINT, exchange -> handleRequest(exchange, this::send));
+        httpServer.createContext(VERIFY_ENDPOINT, exchange -> handleRequest(exchange, this::verify));
+        if(executor == null) {
+            ownedExecutor = createDefaultExecutor();
+            executor = ownedExecutor;
+        } else
+            ownedExecutor = null;
+        httpServer.setExecutor(executor);
+        httpServer.start();
+    }
+
+    /**
+     * Method to create the default executor of the requests <br>
+     * No-any params required
+     *
+     * @return the default executor as {@link ExecutorService}
+     */
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "monkey-verification-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Method to handle a request of an endpoint
+     *
+     * @param exchange: the exchange of the request
+     * @param endpoint: the endpoint which creates the response from the request
+     * @throws IOException when an error occurred during the reading of the request or the writing of the response
+     */
+    private void handleRequest(HttpExchange exchange, Function<JSONObject, JSONObject> endpoint) throws IOException {
+        try (exchange) {
+            if(authenticator != null && !authenticator.authenticate(exchange)) {
+                sendResponse(exchange, 401, error("The request is not authenticated"));
+                return;
+            }
+            if(!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendResponse(exchange, 405, error("Only the POST requests are allowed"));
+                return;
+            }
+            byte[] requestBody = exchange.getRequestBody().readNBytes(MAX_REQUEST_BODY_SIZE + 1);
+            if(requestBody.length > MAX_REQUEST_BODY_SIZE) {
+                sendResponse(exchange, 413, error("The body of the request is longer than " + MAX_REQUEST_BODY_SIZE
+                        + " bytes"));
+                return;
+            }
+            JSONObject response;
+            int status = 200;
+            try {
+                response = endpoint.apply(new JSONObject(new String(requestBody, StandardCharsets.UTF_8)));
+            } catch (JSONException | IllegalArgumentException e) {
+                status = 400;
+                response = error(e.getMessage());
+            } catch (IllegalStateException e) {
+                status = 409;
+                response = error(e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                response = error(INTERNAL_ERROR);
+            }
+            sendResponse(exchange, status, response);
+        }
+    }
+
+    /**
+     * Method to send the verification emails requested
+     *
+     * @param request: the request of the send
+     * @return the results of the sends as {@link JSONObject}
+     */
+    private JSONObject send(JSONObject request) {
+        JSONArray jRecipients = request.getJSONArray(RECIPIENTS_KEY);
+        String[] recipients = new String[jRecipients.length()];
+        for (int j = 0; j < recipients.length; j++)
+            recipients[j] = jRecipients.getString(j);
+        List<MonkeySendResult> sendResults = verifier.sendPlainVerificationEmail(
+                SendPriority.valueOf(request.optString(PRIORITY_KEY, SendPriority.NORMAL.name())),
+                request.getString(FROM_TEXT_KEY),
+                request.getString(SUBJECT_KEY),
+                request.getString(BODY_KEY),
+                recipients
+        );
+        JSONArray results = new JSONArray();
+        for (MonkeySendResult sendResult : sendResults) {
+            JSONObject result = new JSONObject()
+                    .put(RECIPIENT_KEY, sendResult.getRecipient())
+                    .put(STATUS_KEY, sendResult.getStatus().name());
+            if(sendResult.getReason() != null)
+                result.put(REASON_KEY, sendResult.getReason());
+            results.put(result);
+        }
+        return new JSONObject().put(RESULTS_KEY, results);
+    }
+
+    /**
+     * Method to verify the code sent by a user
+     *
+     * @param request: the request of the verification
+     * @return the outcome of the verification as {@link JSONObject}
+     */
+    private JSONObject verify(JSONObject request) {
+        boolean[] verified = new boolean[1];
+        verifier.verifyCodeSent(request.getString(EMAIL_KEY), request.getString(CODE_KEY),
+                new MonkeyVerificationActions() {
+                    @Override
+                    public void onSuccess() {
+                        verified[0] = true;
+                    }
+
+                    @Override
+                    public void onFailure() {
+                        verified[0] = false;
+                    }
+                });
+        return new JSONObject().put(VERIFIED_KEY, verified[0]);
+    }
+
+    /**
+     * Method to create the response of a request failed
+     *
+     * @param reason: the reason of the failure
+     * @return the response as {@link JSONObject}
+     */
+    private static JSONObject error(String reason) {
+        return new JSONObject().put(ERROR_KEY, String.valueOf(reason));
+    }
+
+    /**
+     * Method to send the response of a request, the length of the response is always sent, so the connection is kept
+     * alive
+     *
+     * @param exchange: the exchange of the request
+     * @param status: the status code of the response
+     * @param response: the response to send
+     * @throws IOException when an error occurred during the writing of the response
+     */
+    private static void sendResponse(HttpExchange exchange, int status, JSONObject response) throws IOException {
+        byte[] responseBody = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, responseBody.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(responseBody);
+        }
+    }
+
+    /**
+     * Method to get the port where the server listens <br>
+     * No-any params required
+     *
+     * @return the port where the server listens as int
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Method to close the server, the requests in progress are completed before the server stops <br>
+     * No-any params required
+     *
+     * @apiNote the shared verifier is not closed
+     */
+    @Override
+    public void close() {
+        httpServer.stop(STOP_DELAY);
+        if(ownedExecutor != null)
+            ownedExecutor.shutdown();
+    }
+
+}
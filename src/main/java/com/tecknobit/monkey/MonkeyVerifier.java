@@ -1,37 +1,56 @@
 package com.tecknobit.monkey;
 
 import com.tecknobit.apimanager.apis.ResourcesUtils;
-import com.tecknobit.monkey.MonkeyTemplate.MonkeyColorsScheme;
-import com.tecknobit.monkey.MonkeyTemplate.MonkeyLogo;
+import com.tecknobit.monkey.MonkeyAuditLog.AuditRecordType;
+import com.tecknobit.monkey.MonkeyBoundedCodesStore.EvictionPolicy;
+import com.tecknobit.monkey.MonkeyCompiledTemplate.MonkeyRendition;
+import com.tecknobit.monkey.MonkeyRecipientsValidator.RecipientsValidation;
+import com.tecknobit.monkey.MonkeySendResult.SendStatus;
 import com.tecknobit.monkey.MonkeyTemplate.MonkeyTemplateTag;
-import com.tecknobit.monkey.MonkeyTemplate.MonkeyTextTemplate;
 import org.simplejavamail.api.email.Email;
 import org.simplejavamail.api.email.EmailPopulatingBuilder;
 import org.simplejavamail.api.email.Recipient;
-import org.simplejavamail.api.mailer.Mailer;
 import org.simplejavamail.email.EmailBuilder;
-import org.simplejavamail.mailer.MailerBuilder;
-import org.simplejavamail.mailer.internal.MailerRegularBuilderImpl;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
-import java.util.Iterator;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static com.tecknobit.apimanager.apis.ResourcesUtils.getResourceContent;
+import static com.tecknobit.monkey.MonkeyCompiledTemplate.COMPILED_TEMPLATE_EXTENSION;
+import static com.tecknobit.monkey.MonkeySendResult.SendStatus.*;
 import static com.tecknobit.monkey.MonkeyTemplate.MonkeyTemplateTag.*;
 import static com.tecknobit.monkey.MonkeyVerifier.KeepEmailValid.ALWAYS_KEEP_VALID;
+import static com.tecknobit.monkey.MonkeyVerifier.SendPriority.NORMAL;
 import static org.apache.commons.lang3.RandomStringUtils.*;
-import static org.simplejavamail.api.mailer.config.TransportStrategy.SMTP;
 
 /**
  * The {@code MonkeyVerifier} class is useful to manage the workflow to send the verification email and check the codes
  * sent
  *
  * @author N7ghtm4r3 - Tecknobit
+ * @see AutoCloseable
  */
-public class MonkeyVerifier {
+public class MonkeyVerifier implements AutoCloseable {
 
     /**
      * {@code VerificationCodeType} list of available verification code type to sent with the emails
@@ -116,6 +135,54 @@ public class MonkeyVerifier {
 
     }
 
+    /**
+     * {@code SendPriority} list of available priorities of the sends, each priority has its own lane when the outbox
+     * is enabled, without the outbox only the {@link #NORMAL} priority is accepted
+     */
+    public enum SendPriority {
+
+        /**
+         * {@code INTERACTIVE} the send is latency-critical, e.g. login or password reset codes
+         */
+        INTERACTIVE(8),
+
+        /**
+         * {@code NORMAL} the send has a standard priority
+         */
+        NORMAL(4),
+
+        /**
+         * {@code BULK} the send is not latency-critical, e.g. re-verification campaigns or newsletter double opt-in
+         */
+        BULK(1);
+
+        /**
+         * {@code weight} the weight of the lane of the priority in the dispatch of the deliveries
+         */
+        private final int weight;
+
+        /**
+         * Constructor to init the {@link SendPriority} class
+         *
+         * @param weight: the weight of the lane of the priority in the dispatch of the deliveries
+         *
+         */
+        SendPriority(int weight) {
+            this.weight = weight;
+        }
+
+        /**
+         * Method to get {@link #weight} instance <br>
+         * No-any params required
+         *
+         * @return {@link #weight} instance as int
+         */
+        public int getWeight() {
+            return weight;
+        }
+
+    }
+
     /**
      * {@code context} the context from the {@link ResourcesUtils} is used
      */
@@ -128,19 +195,6 @@ public class MonkeyVerifier {
      */
     private static final String DEFAULT_MONKEY_TEMPLATE = "default_monkey_template.html";
 
-    /**
-     * {@code MONKEY_TEMPLATE} the default monkey template content
-     */
-    private static final String MONKEY_TEMPLATE;
-
-    static {
-        try {
-            MONKEY_TEMPLATE = getResourceContent(DEFAULT_MONKEY_TEMPLATE, context);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     /**
      * {@code VERIFICATION_CODE_KEY} the verification code key to use to check if the code sent by the user
      * matches with the correct verification code of the email sent
@@ -153,15 +207,69 @@ public class MonkeyVerifier {
     public static final int WELL_KNOWN_SMTP_PORT = 25;
 
     /**
-     * {@code emailsSent} list of the emails sent during the current session
+     * {@code DEFAULT_DRAIN_TIMEOUT} the default time, in milliseconds, to wait for the in-flight deliveries when the
+     * verifier is closed
+     */
+    public static final long DEFAULT_DRAIN_TIMEOUT = 30000;
+
+    /**
+     * {@code DEFAULT_OUTBOX_WORKERS} the default number of the workers which deliver the verification emails appended
+     * to the outbox
+     */
+    public static final int DEFAULT_OUTBOX_WORKERS = 4;
+
+    /**
+     * {@code DEFAULT_FILTER_FALSE_POSITIVE_RATE} the default rate of the false positives of the negative lookup filter
+     */
+    public static final double DEFAULT_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * {@code PARALLEL_RENDER_THRESHOLD} the number of the recipients from which the personalized verification emails
+     * are rendered in parallel
+     */
+    public static final int PARALLEL_RENDER_THRESHOLD = 64;
+
+    /**
+     * {@code RENDER_CHUNK_SIZE} the number of the personalized verification emails rendered in parallel before being
+     * sent, so only a chunk of the batch is kept rendered in memory
+     */
+    private static final int RENDER_CHUNK_SIZE = PARALLEL_RENDER_THRESHOLD * 4;
+
+    /**
+     * {@code DEFAULT_MAX_USED_CODES} the default max number of the time-based codes already verified remembered to
+     * reject their reuse
+     */
+    public static final int DEFAULT_MAX_USED_CODES = 100000;
+
+    /**
+     * {@code DEFAULT_MAX_FAILED_ATTEMPTS} the default max number of the failed verifications of an email within the
+     * validity of its code
+     */
+    public static final int DEFAULT_MAX_FAILED_ATTEMPTS = 5;
+
+    /**
+     * {@code DEFAULT_EXPIRY_BATCH_SIZE} the default max number of the verification emails expired notified in a batch
+     */
+    public static final int DEFAULT_EXPIRY_BATCH_SIZE = 500;
+
+    /**
+     * {@code codesStore} the store of the verification emails sent which are waiting for their verification
      *
-     * @apiNote when the session has been restarted, for example the server is restarted, the list will be empty and
-     * the past verification emails sent will be considered expired
+     * @apiNote by default a {@link MonkeyMemoryCodesStore} is used, so when the session has been restarted, for
+     * example the server is restarted, the store will be empty and the past verification emails sent will be
+     * considered expired
      */
-    private final Properties emailsSent;
+    private volatile MonkeyCodesStore codesStore;
 
     /**
-     * {@code host} the host where the SMTP service is running
+     * {@code negativeLookupFilter} the filter used to skip the lookups of the emails without a verification code
+     * pending, null if the lookups are always executed
+     */
+    private volatile MonkeyNegativeLookupFilter negativeLookupFilter;
+
+    /**
+     * {@code host} the host where the SMTP service is running, null if the verifier does not use a
+     * {@link MonkeySMTPTransport}
      */
     private final String host;
 
@@ -173,9 +281,9 @@ public class MonkeyVerifier {
     private final String from;
 
     /**
-     * {@code mailer} the manager to send the verification emails
+     * {@code transport} the transport used to deliver the verification emails
      */
-    private final Mailer mailer;
+    private final MonkeyTransport transport;
 
     /**
      * {@code keepEmailValid} value of the {@link KeepEmailValid}
@@ -187,6 +295,76 @@ public class MonkeyVerifier {
      */
     private final VerificationCodeType verificationCodeType;
 
+    /**
+     * {@code inFlightDeliveries} the deliveries currently in progress, each one with the recipients of its email
+     */
+    private final ConcurrentHashMap<Long, List<String>> inFlightDeliveries;
+
+    /**
+     * {@code deliveriesCounter} the counter used to identify each delivery in {@link #inFlightDeliveries}
+     */
+    private final AtomicLong deliveriesCounter;
+
+    /**
+     * {@code unflushedRecipients} the recipients of the deliveries not completed within the {@link #drainTimeout}
+     * when the verifier has been closed
+     */
+    private final List<String> unflushedRecipients;
+
+    /**
+     * {@code drainTimeout} the time, in milliseconds, to wait for the in-flight deliveries when the verifier is closed
+     */
+    private volatile long drainTimeout;
+
+    /**
+     * {@code closed} whether the verifier has been closed and does not accept new sends anymore
+     */
+    private final AtomicBoolean closed;
+
+    /**
+     * {@code outbox} the outbox where the verification emails are appended before their delivery, null if the
+     * verification emails are delivered synchronously
+     */
+    private volatile MonkeyOutbox outbox;
+
+    /**
+     * {@code deadLetterListener} the listener notified with the recipients of the verification emails of the outbox
+     * whose delivery attempts all failed, null if they are not notified
+     */
+    private volatile Consumer<List<String>> deadLetterListener;
+
+    /**
+     * {@code timeBasedCodes} the generator of the time-based verification codes, null if the verification codes are
+     * random and stored in the {@link #codesStore}
+     */
+    private volatile MonkeyTimeBasedCodes timeBasedCodes;
+
+    /**
+     * {@code failedAttempts} the failed verifications of the emails whose code is stored in the {@link #codesStore},
+     * null if they are not limited
+     */
+    private volatile MonkeyFailedAttempts failedAttempts;
+
+    /**
+     * {@code renderPool} the pool where the personalized verification emails are rendered in parallel
+     */
+    private volatile ForkJoinPool renderPool;
+
+    /**
+     * {@code auditLog} the audit log where the sends and the verifications are recorded, null if they are not recorded
+     */
+    private volatile MonkeyAuditLog auditLog;
+
+    /**
+     * {@code magicLinkSigner} the signer of the magic links, null if the magic links are not enabled
+     */
+    private volatile MonkeyMagicLinkSigner magicLinkSigner;
+
+    /**
+     * {@code expiryNotifier} the notifier of the verification emails expired, null if they are not notified
+     */
+    private volatile ExpiryNotifier expiryNotifier;
+
     /**
      * Constructor to init the {@link MonkeyVerifier} class
      *
@@ -296,17 +474,48 @@ public class MonkeyVerifier {
      */
     public MonkeyVerifier(String host, int smtpPort, VerificationCodeType verificationCodeType,
                           KeepEmailValid keepEmailValid, String from, String password) {
-        this.host = host;
+        this(new MonkeySMTPTransport(host, smtpPort, from, password), verificationCodeType, keepEmailValid, from);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyVerifier} class
+     *
+     * @param transport: the transport used to deliver the verification emails
+     * @param verificationCodeType: value of the {@link VerificationCodeType}
+     * @param from: the user that will be considered the "From" in the verification email
+     *
+     */
+    public MonkeyVerifier(MonkeyTransport transport, VerificationCodeType verificationCodeType, String from) {
+        this(transport, verificationCodeType, ALWAYS_KEEP_VALID, from);
+    }
+
+    /**
+     * Constructor to init the {@link MonkeyVerifier} class
+     *
+     * @param transport: the transport used to deliver the verification emails
+     * @param verificationCodeType: value of the {@link VerificationCodeType}
+     * @param keepEmailValid: value of the {@link KeepEmailValid}
+     * @param from: the user that will be considered the "From" in the verification email
+     *
+     */
+    public MonkeyVerifier(MonkeyTransport transport, VerificationCodeType verificationCodeType,
+                          KeepEmailValid keepEmailValid, String from) {
+        if(transport instanceof MonkeySMTPTransport smtpTransport)
+            host = smtpTransport.getHost();
+        else
+            host = null;
+        this.transport = transport;
         this.verificationCodeType = verificationCodeType;
         this.keepEmailValid = keepEmailValid;
         this.from = from;
-        MailerRegularBuilderImpl mailerBuilder = MailerBuilder.withTransportStrategy(SMTP);
-        if(password != null)
-            mailerBuilder.withSMTPServer(host, smtpPort, from, password);
-        else
-            mailerBuilder.withSMTPServer(host, smtpPort, from);
-        mailer = mailerBuilder.buildMailer();
-        emailsSent = new Properties();
+        codesStore = new MonkeyMemoryCodesStore();
+        renderPool = ForkJoinPool.commonPool();
+        inFlightDeliveries = new ConcurrentHashMap<>();
+        closed = new AtomicBoolean();
+        deliveriesCounter = new AtomicLong();
+        unflushedRecipients = Collections.synchronizedList(new ArrayList<>());
+        drainTimeout = DEFAULT_DRAIN_TIMEOUT;
+        failedAttempts = new MonkeyFailedAttempts(DEFAULT_MAX_FAILED_ATTEMPTS, 0);
     }
 
     /**
@@ -317,16 +526,35 @@ public class MonkeyVerifier {
      * @param emailBody: the plain body text of the email 
      * @param recipients: the recipients to send the verification email
      *                  
-     * @implNote the verification code is unique for each email send in batch 
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
      * @apiNote e.g. of plain verification email -> Hi, your verification code is 212230
      */
-    public void sendPlainVerificationEmail(String fromText, String emailSubject, String emailBody, String ... recipients) {
-        for(String recipient : recipients) {
-            EmailPopulatingBuilder emailPopulatingBuilder = initEmailBuilder(fromText, emailSubject);
-            emailPopulatingBuilder.to(recipient);
-            MonkeyData monkeyData = formatVerificationCode(emailBody);
-            sendEmail(emailPopulatingBuilder.withPlainText(monkeyData.content).buildEmail(), monkeyData.verificationCode);
-        }
+    public List<MonkeySendResult> sendPlainVerificationEmail(String fromText, String emailSubject, String emailBody, String ... recipients) {
+        return sendPlainVerificationEmail(NORMAL, fromText, emailSubject, emailBody, recipients);
+    }
+
+    /**
+     * Method to send a verification email with a plain text body
+     *
+     * @param priority: the priority of the send
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param emailBody: the plain body text of the email
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @apiNote e.g. of plain verification email -> Hi, your verification code is 212230
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
+     */
+    public List<MonkeySendResult> sendPlainVerificationEmail(SendPriority priority, String fromText,
+                                                             String emailSubject, String emailBody,
+                                                             String ... recipients) {
+        return sendVerificationEmails(priority, fromText, emailSubject, false, validateRecipients(recipients),
+                recipient -> () -> formatVerificationCode(emailBody, recipient));
     }
 
     /**
@@ -337,11 +565,79 @@ public class MonkeyVerifier {
      * @param monkeyTemplate: the template to use in the verification email
      * @param recipients: the recipients to send the verification email
      *
-     * @implNote the verification code is unique for each email send in batch
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
      */
-    public void sendDefaultTemplateVerificationEmail(String fromText, String emailSubject, MonkeyTemplate monkeyTemplate,
+    public List<MonkeySendResult> sendDefaultTemplateVerificationEmail(String fromText, String emailSubject, MonkeyTemplate monkeyTemplate,
                                                      String ... recipients) {
-        sendTemplateVerificationEmail(fromText, emailSubject, MONKEY_TEMPLATE, monkeyTemplate, recipients);
+        return sendDefaultTemplateVerificationEmail(NORMAL, fromText, emailSubject, monkeyTemplate, recipients);
+    }
+
+    /**
+     * Method to send a verification email with the default monkey template
+     *
+     * @param priority: the priority of the send
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param monkeyTemplate: the template to use in the verification email
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
+     */
+    public List<MonkeySendResult> sendDefaultTemplateVerificationEmail(SendPriority priority, String fromText,
+                                                                       String emailSubject,
+                                                                       MonkeyTemplate monkeyTemplate,
+                                                                       String ... recipients) {
+        return sendTemplateVerificationEmail(priority, fromText, emailSubject, MonkeyDefaultTemplate.TEMPLATE,
+                monkeyTemplate, recipients);
+    }
+
+    /**
+     * Method to send a verification email with the template of a bundle resolved for the locale of the recipients
+     *
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param templateBundle: the bundle of the templates to use
+     * @param locale: the locale of the recipients
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @apiNote the template of each locale is compiled once and cached by the bundle
+     */
+    public List<MonkeySendResult> sendBundleTemplateVerificationEmail(String fromText, String emailSubject,
+                                                    MonkeyTemplateBundle templateBundle, Locale locale,
+                                                    String ... recipients) {
+        return sendBundleTemplateVerificationEmail(NORMAL, fromText, emailSubject, templateBundle, locale, recipients);
+    }
+
+    /**
+     * Method to send a verification email with the template of a bundle resolved for the locale of the recipients
+     *
+     * @param priority: the priority of the send
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param templateBundle: the bundle of the templates to use
+     * @param locale: the locale of the recipients
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @apiNote the template of each locale is compiled once and cached by the bundle
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
+     */
+    public List<MonkeySendResult> sendBundleTemplateVerificationEmail(SendPriority priority, String fromText,
+                                                                      String emailSubject,
+                                                                      MonkeyTemplateBundle templateBundle, Locale locale,
+                                                                      String ... recipients) {
+        return sendTemplateVerificationEmail(priority, fromText, emailSubject, templateBundle.getTemplate(locale), null,
+                recipients);
     }
 
     /**
@@ -352,14 +648,45 @@ public class MonkeyVerifier {
      * @param emailSubject: the subject for the verification email
      * @param recipients: the recipients to send the verification email
      *
-     * @implNote the verification code is unique for each email send in batch
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
      * @implSpec you need to place your custom template file in the resources folder to works correctly
+     * @apiNote when the template has been compiled at build time by the <b>compileMonkeyTemplates</b> task its
+     * compiled form is used
      * @throws IOException when an error occurred during operations with the template file
      */
-    public void sendCustomTemplateVerificationEmail(String templatePathname, String fromText, String emailSubject,
+    public List<MonkeySendResult> sendCustomTemplateVerificationEmail(String templatePathname, String fromText, String emailSubject,
                                                     String ... recipients) throws IOException {
-        sendCustomTemplateVerificationEmail(ResourcesUtils.getResourceFileRuntimeCopy(templatePathname, context),
-                fromText, emailSubject, recipients);
+        return sendCustomTemplateVerificationEmail(NORMAL, templatePathname, fromText, emailSubject, recipients);
+    }
+
+    /**
+     * Method to send a verification email with the default monkey template
+     *
+     * @param priority: the priority of the send
+     * @param templatePathname: the pathname of the file to use as template for the verification email
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @implSpec you need to place your custom template file in the resources folder to works correctly
+     * @apiNote when the template has been compiled at build time by the <b>compileMonkeyTemplates</b> task its
+     * compiled form is used
+     * @throws IOException when an error occurred during operations with the template file
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
+     */
+    public List<MonkeySendResult> sendCustomTemplateVerificationEmail(SendPriority priority, String templatePathname,
+                                                                      String fromText, String emailSubject,
+                                                                      String ... recipients) throws IOException {
+        MonkeyCompiledTemplate compiledTemplate = loadCompiledTemplate(templatePathname);
+        if(compiledTemplate != null)
+            return sendTemplateVerificationEmail(priority, fromText, emailSubject, compiledTemplate, null, recipients);
+        return sendCustomTemplateVerificationEmail(priority, ResourcesUtils.getResourceFileRuntimeCopy(templatePathname,
+                context), fromText, emailSubject, recipients);
     }
 
     /**
@@ -370,167 +697,1085 @@ public class MonkeyVerifier {
      * @param emailSubject: the subject for the verification email
      * @param recipients: the recipients to send the verification email
      *
-     * @implNote the verification code is unique for each email send in batch
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
      * @implSpec you need to place your custom template file in the resources folder to works correctly
      * @throws IOException when an error occurred during operations with the template file
      */
-    public void sendCustomTemplateVerificationEmail(File customTemplate, String fromText, String emailSubject,
+    public List<MonkeySendResult> sendCustomTemplateVerificationEmail(File customTemplate, String fromText, String emailSubject,
                                                     String ... recipients) throws IOException {
-        String customContentTemplate = getResourceContent(customTemplate.getName(), context);
-        sendTemplateVerificationEmail(fromText, emailSubject, customContentTemplate, null, recipients);
+        return sendCustomTemplateVerificationEmail(NORMAL, customTemplate, fromText, emailSubject, recipients);
     }
 
     /**
      * Method to send a verification email with the default monkey template
      *
+     * @param priority: the priority of the send
+     * @param customTemplate: the file to use as template for the verification email
      * @param fromText: the text for the "from" section of the email
      * @param emailSubject: the subject for the verification email
-     * @param templateContent: the content of the template to use
-     * @param monkeyTemplate: the templateContent to use in the verification email
      * @param recipients: the recipients to send the verification email
      *
-     * @implNote the verification code is unique for each email send in batch
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @implSpec you need to place your custom template file in the resources folder to works correctly
+     * @throws IOException when an error occurred during operations with the template file
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
      */
-    private void sendTemplateVerificationEmail(String fromText, String emailSubject, String templateContent,
-                                               MonkeyTemplate monkeyTemplate, String ... recipients) {
-        for (String recipient : recipients) {
-            EmailPopulatingBuilder emailPopulatingBuilder = initEmailBuilder(fromText, emailSubject);
-            emailPopulatingBuilder.to(recipient);
-            MonkeyData monkeyData = formatTemplate(templateContent, monkeyTemplate);
-            sendEmail(emailPopulatingBuilder.appendTextHTML(monkeyData.content).buildEmail(), monkeyData.verificationCode);
-        }
+    public List<MonkeySendResult> sendCustomTemplateVerificationEmail(SendPriority priority, File customTemplate, String fromText,
+                                                    String emailSubject, String ... recipients) throws IOException {
+        String customContentTemplate = getResourceContent(customTemplate.getName(), context);
+        return sendTemplateVerificationEmail(priority, fromText, emailSubject,
+                MonkeyCompiledTemplate.compile(customContentTemplate), null, recipients);
     }
 
     /**
-     * Method to create an {@link EmailPopulatingBuilder}
+     * Method to send a verification email with a magic link signed, the pending verifications are not stored, so the
+     * verification does not depend on this verifier instance
      *
+     * @param linkUrl: the url of the link, the token signed is appended as <b>token</b> query parameter
      * @param fromText: the text for the "from" section of the email
      * @param emailSubject: the subject for the verification email
-     * @return an email builder as {@link EmailPopulatingBuilder}
+     * @param compiledTemplate: the template to use, it must contain the {@link MonkeyTemplateTag#MAGIC_LINK_TAG}
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the token expires after the {@link #keepEmailValid} time chosen, with the
+     * {@link KeepEmailValid#ALWAYS_KEEP_VALID} it expires after the {@link MonkeyMagicLinkSigner#MAX_TOKEN_VALIDITY}
+     * @throws IllegalStateException when the magic links are not enabled with {@link #setMagicLinkSigner}
+     * @throws IllegalArgumentException when the {@link MonkeyTemplateTag#MAGIC_LINK_TAG} is missing
      */
-    private EmailPopulatingBuilder initEmailBuilder(String fromText, String emailSubject) {
-        return EmailBuilder.startingBlank()
-                .from(fromText, from)
-                .withSubject(emailSubject);
+    public List<MonkeySendResult> sendMagicLinkVerificationEmail(String linkUrl, String fromText, String emailSubject,
+                                               MonkeyCompiledTemplate compiledTemplate, String ... recipients) {
+        return sendMagicLinkVerificationEmail(NORMAL, linkUrl, fromText, emailSubject, compiledTemplate, recipients);
     }
 
     /**
-     * Method to send a verification email
+     * Method to send a verification email with a magic link signed, the pending verifications are not stored, so the
+     * verification does not depend on this verifier instance
      *
-     * @param email: the email object to send as email
-     * @param verificationCode: the verification code attached to the verification email
+     * @param priority: the priority of the send
+     * @param linkUrl: the url of the link, the token signed is appended as <b>token</b> query parameter
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param compiledTemplate: the template to use, it must contain the {@link MonkeyTemplateTag#MAGIC_LINK_TAG}
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the token expires after the {@link #keepEmailValid} time chosen, with the
+     * {@link KeepEmailValid#ALWAYS_KEEP_VALID} it expires after the {@link MonkeyMagicLinkSigner#MAX_TOKEN_VALIDITY}
+     * @throws IllegalStateException when the magic links are not enabled with {@link #setMagicLinkSigner}
+     * @throws IllegalArgumentException when the {@link MonkeyTemplateTag#MAGIC_LINK_TAG} is missing
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
      */
-    private void sendEmail(Email email, String verificationCode) {
-        mailer.sendMail(email);
-        for (Recipient recipient : email.getToRecipients()) {
-            String emailAddress = recipient.getAddress();
-            emailsSent.put(emailAddress, new EmailSent(emailAddress, verificationCode));
-        }
+    public List<MonkeySendResult> sendMagicLinkVerificationEmail(SendPriority priority, String linkUrl, String fromText,
+                                               String emailSubject, MonkeyCompiledTemplate compiledTemplate,
+                                               String ... recipients) {
+        MonkeyMagicLinkSigner magicLinkSigner = this.magicLinkSigner;
+        if(magicLinkSigner == null)
+            throw new IllegalStateException("The magic links are not enabled");
+        if(!compiledTemplate.hasTag(MAGIC_LINK_TAG))
+            throw new IllegalArgumentException("magic_link tag is missing!");
+        String tokenPrefix = linkUrl + (linkUrl.contains("?") ? "&" : "?") + "token=";
+        return sendVerificationEmails(priority, fromText, emailSubject, true, validateRecipients(recipients),
+                recipient -> () -> {
+                    long expiration = System.currentTimeMillis() + (keepEmailValid != ALWAYS_KEEP_VALID
+                            ? keepEmailValid.time : MonkeyMagicLinkSigner.MAX_TOKEN_VALIDITY);
+                    String magicLink = tokenPrefix + magicLinkSigner.sign(recipient, expiration);
+                    MonkeyRendition rendition = compiledTemplate.renderAlternatives(Map.of(MAGIC_LINK_TAG.getValue(),
+                            magicLink));
+                    return new MonkeyData(rendition.getHtml(), rendition.getText(), null);
+                });
     }
 
     /**
-     * Method to format the content of a template replacing with the {@link MonkeyTemplate} details
-     * @param contentTemplate: the base content template
-     * @param monkeyTemplate: the monkey template to create the verification email template
-     * @return the template formatted as {@link MonkeyData}
+     * Method to load the compiled form of a template from the resources
+     *
+     * @param templatePathname: the pathname of the template
+     * @return the template compiled as {@link MonkeyCompiledTemplate}, null if the template has not been compiled
+     * @throws IOException when an error occurred during the reading of the compiled template
      */
-    private MonkeyData formatTemplate(String contentTemplate, MonkeyTemplate monkeyTemplate) {
-        MonkeyData monkeyData = formatVerificationCode(contentTemplate);
-        contentTemplate = monkeyData.content;
-        if(monkeyTemplate != null) {
-            MonkeyColorsScheme colorsScheme = monkeyTemplate.getColorsScheme();
-            MonkeyTextTemplate monkeyTextTemplate = monkeyTemplate.getMonkeyTextTemplate();
-            MonkeyLogo monkeyLogo = monkeyTemplate.getMonkeyLogo();
-            if(colorsScheme != null) {
-                contentTemplate = contentTemplate.replaceAll(PRIMARY_COLOR_TAG.getTag(), colorsScheme.getPrimaryColor())
-                        .replaceAll(SECONDARY_COLOR_TAG.getTag(), colorsScheme.getSecondaryColor())
-                        .replaceAll(TERTIARY_COLOR_TAG.getTag(), colorsScheme.getTertiaryColor())
-                        .replaceAll(TEXT_COLOR_TAG.getTag(), colorsScheme.getTextsColor());
-            }
-            if(monkeyLogo != null) {
-                contentTemplate = contentTemplate.replaceAll(LOGO_LINK_TAG.getTag(), monkeyLogo.getLogoLink())
-                        .replaceAll(LOGO_URL_TAG.getTag(), monkeyLogo.getLogoUrl());
-            }
-            if(monkeyTextTemplate != null) {
-                contentTemplate = contentTemplate.replaceAll(TITLE_TAG.getTag(), monkeyTextTemplate.getTitle())
-                        .replaceAll(DESCRIPTION_TAG.getTag(), monkeyTextTemplate.getDescription())
-                        .replaceAll(FOOTER_TEXT_TAG.getTag(), monkeyTextTemplate.getFooterText())
-                        .replaceAll(REASONS_TEXT_TAG.getTag(), monkeyTextTemplate.getReasonsText());
-            }
+    private static MonkeyCompiledTemplate loadCompiledTemplate(String templatePathname) throws IOException {
+        int extensionIndex = templatePathname.lastIndexOf('.');
+        if(extensionIndex != -1)
+            templatePathname = templatePathname.substring(0, extensionIndex);
+        ClassLoader classLoader = context.getClassLoader();
+        try (InputStream compiledTemplate = classLoader.getResourceAsStream(templatePathname
+                + COMPILED_TEMPLATE_EXTENSION)) {
+            if(compiledTemplate == null)
+                return null;
+            return MonkeyCompiledTemplate.readFrom(compiledTemplate);
         }
-        monkeyData.setContent(contentTemplate);
-        return monkeyData;
     }
 
     /**
-     * Method to format the content of a template replacing the {@link MonkeyTemplateTag#VERIFICATION_CODE_TAG} with
-     * a verification code generated
-     * @param contentTemplate: the base content template
+     * Method to send a verification email with the default monkey template
      *
-     * @return the template formatted as {@link MonkeyData}
+     * @param priority: the priority of the send
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param compiledTemplate: the compiled template to use
+     * @param monkeyTemplate: the monkey template to use in the verification email
+     * @param recipients: the recipients to send the verification email
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the values of the monkey template are
+     * bound once, so for each recipient only the verification code is rendered in both the HTML part and its plain
+     * text alternative
      * @throws IllegalArgumentException when the {@link MonkeyTemplateTag#VERIFICATION_CODE_TAG} is missing
      */
-    private MonkeyData formatVerificationCode(String contentTemplate) {
-        String verificationTag = VERIFICATION_CODE_TAG.getTag();
-        if(!contentTemplate.contains(verificationTag))
+    private List<MonkeySendResult> sendTemplateVerificationEmail(SendPriority priority, String fromText,
+                                                                 String emailSubject,
+                                                                 MonkeyCompiledTemplate compiledTemplate,
+                                                                 MonkeyTemplate monkeyTemplate, String ... recipients) {
+        if(!compiledTemplate.hasTag(VERIFICATION_CODE_TAG))
             throw new IllegalArgumentException("verification_code tag is missing!");
-        String verificationCode = generateVerificationCode();
-        return new MonkeyData(
-                contentTemplate.replaceAll(verificationTag, verificationCode),
-            verificationCode
-        );
+        MonkeyCompiledTemplate boundTemplate = compiledTemplate;
+        if(monkeyTemplate != null)
+            boundTemplate = compiledTemplate.bind(monkeyTemplate.getTagsValues());
+        MonkeyCompiledTemplate template = boundTemplate;
+        return sendVerificationEmails(priority, fromText, emailSubject, true, validateRecipients(recipients),
+                recipient -> () -> formatTemplate(template, recipient, Map.of()));
     }
 
     /**
-     * Method to generate a verification code using the {@link #verificationCodeType} to create the correct code <br>
-     * No-any params required
-     * @return the verification code as {@link String}
+     * Method to send a verification email personalized for each recipient with some user-defined variables, e.g. to
+     * greet each user by name
+     *
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param compiledTemplate: the template to use, compiled with the names of the variables with
+     *                        {@link MonkeyCompiledTemplate#compile(String, java.util.Set)}
+     * @param monkeyTemplate: the monkey template to use in the verification email, null if not used
+     * @param recipientsVariables: the values of the variables of each recipient, the keys are the recipients
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @throws IllegalArgumentException when the {@link MonkeyTemplateTag#VERIFICATION_CODE_TAG} is missing
      */
-    private String generateVerificationCode() {
-        String verificationCode = "";
-        switch (verificationCodeType) {
-            case NUMBERS -> verificationCode = randomNumeric(6);
-            case CHARACTERS -> verificationCode = randomAlphabetic(6);
-            case ALPHANUMERIC -> verificationCode = randomAlphanumeric(6);
-        }
-        return verificationCode;
+    public List<MonkeySendResult> sendPersonalizedVerificationEmail(String fromText, String emailSubject,
+                                                  MonkeyCompiledTemplate compiledTemplate, MonkeyTemplate monkeyTemplate,
+                                                  Map<String, Map<String, String>> recipientsVariables) {
+        return sendPersonalizedVerificationEmail(NORMAL, fromText, emailSubject, compiledTemplate, monkeyTemplate,
+                recipientsVariables);
     }
 
     /**
-     * Method to verify the code sent by the user with corresponding the verification code of the verification email sent
-     * @param userEmail: the email of the user
-     * @param userCode: the verification code sent by the user
-     * @param actions: the actions to execute after the verification
+     * Method to send a verification email personalized for each recipient with some user-defined variables, e.g. to
+     * greet each user by name
+     *
+     * @param priority: the priority of the send
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param compiledTemplate: the template to use, compiled with the names of the variables with
+     *                        {@link MonkeyCompiledTemplate#compile(String, java.util.Set)}
+     * @param monkeyTemplate: the monkey template to use in the verification email, null if not used
+     * @param recipientsVariables: the values of the variables of each recipient, the keys are the recipients
+     *
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}
+     * @implNote the verification code is unique for each email send in batch, the recipients are normalized and the
+     * invalid or duplicated ones are dropped
+     * @throws IllegalArgumentException when the {@link MonkeyTemplateTag#VERIFICATION_CODE_TAG} is missing
+     * @apiNote the values of the monkey template are bound once, so the static segments are shared by all the
+     * recipients; when the recipients are at least {@link #PARALLEL_RENDER_THRESHOLD} the verification emails are
+     * rendered in parallel in the {@link #renderPool} in chunks and sent in order, the next chunk is rendered while the
+     * current one is sent. The values of the variables are HTML-escaped in the HTML content and kept as they are in the
+     * plain text alternative
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
      */
-    public void verifyCodeSent(String userEmail, String userCode, MonkeyVerificationActions actions) {
-        removeExpiredVerificationEmails();
-        EmailSent emailSent = (EmailSent) emailsSent.get(userEmail);
-        if(emailSent != null) {
-            if(userCode.equals(emailSent.verificationCode)) {
-                emailsSent.remove(userEmail);
-                actions.onSuccess();
-            } else
-                actions.onFailure();
-        } else
-            actions.onFailure();
+    public List<MonkeySendResult> sendPersonalizedVerificationEmail(SendPriority priority, String fromText,
+                                                                    String emailSubject,
+                                                                    MonkeyCompiledTemplate compiledTemplate,
+                                                                    MonkeyTemplate monkeyTemplate,
+                                                                    Map<String, Map<String, String>> recipientsVariables) {
+        if(!compiledTemplate.hasTag(VERIFICATION_CODE_TAG))
+            throw new IllegalArgumentException("verification_code tag is missing!");
+        checkPriority(priority);
+        MonkeyCompiledTemplate template = monkeyTemplate != null
+                ? compiledTemplate.bind(monkeyTemplate.getTagsValues()) : compiledTemplate;
+        Map<String, Map<String, String>> normalizedVariables = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> recipientVariables : recipientsVariables.entrySet())
+            if(recipientVariables.getKey() != null)
+                normalizedVariables.putIfAbsent(MonkeyRecipientsValidator.normalize(recipientVariables.getKey()),
+                        recipientVariables.getValue());
+        RecipientsValidation validation = validateRecipients(recipientsVariables.keySet().toArray(new String[0]));
+        List<String> recipients = validation.getValidRecipients();
+        if(recipients.size() < PARALLEL_RENDER_THRESHOLD) {
+            return sendVerificationEmails(priority, fromText, emailSubject, true, validation,
+                    recipient -> () -> formatTemplate(template, recipient, normalizedVariables.get(recipient)));
+        }
+        List<MonkeySendResult> results = new ArrayList<>(recipients.size());
+        ForkJoinTask<List<Supplier<MonkeyData>>> renderedChunk = renderChunk(template, recipients, 0,
+                normalizedVariables);
+        for (int chunkStart = 0; chunkStart < recipients.size(); chunkStart += RENDER_CHUNK_SIZE) {
+            List<Supplier<MonkeyData>> renderedEmails = renderedChunk.join();
+            int nextChunkStart = chunkStart + RENDER_CHUNK_SIZE;
+            if(nextChunkStart < recipients.size())
+                renderedChunk = renderChunk(template, recipients, nextChunkStart, normalizedVariables);
+            for (int j = 0; j < renderedEmails.size(); j++) {
+                results.add(sendVerificationEmail(priority, fromText, emailSubject, recipients.get(chunkStart + j),
+                        true, renderedEmails.get(j)));
+            }
+        }
+        addInvalidResults(results, validation);
+        return results;
     }
 
     /**
-     * Method to remove from the {@link #emailsSent} the emails which their timestamp is over the {@link #keepEmailValid}
-     * threshold chosen <br>
-     * No-any params required
+     * Method to render in parallel, in the {@link #renderPool}, a chunk of the personalized verification emails
      *
-     * @apiNote this routine is executed if the {@link #keepEmailValid} is different from {@link KeepEmailValid#ALWAYS_KEEP_VALID}
+     * @param template: the compiled template to render
+     * @param recipients: the valid recipients of the batch
+     * @param chunkStart: the index of the first recipient of the chunk
+     * @param recipientsVariables: the values of the variables of each recipient, the keys are the recipients
+     *
+     * @return the task which renders the chunk as {@link ForkJoinTask} of {@link List} of {@link Supplier}, each
+     * supplier returns a verification email rendered or throws the error of its render
+     */
+    private ForkJoinTask<List<Supplier<MonkeyData>>> renderChunk(MonkeyCompiledTemplate template,
+                                                                 List<String> recipients, int chunkStart,
+                                                                 Map<String, Map<String, String>> recipientsVariables) {
+        List<String> chunk = recipients.subList(chunkStart, Math.min(chunkStart + RENDER_CHUNK_SIZE,
+                recipients.size()));
+        return renderPool.submit(() -> chunk.parallelStream()
+                .map(recipient -> {
+                    try {
+                        MonkeyData renderedEmail = formatTemplate(template, recipient,
+                                recipientsVariables.get(recipient));
+                        return (Supplier<MonkeyData>) () -> renderedEmail;
+                    } catch (RuntimeException e) {
+                        return (Supplier<MonkeyData>) () -> {
+                            throw e;
+                        };
+                    }
+                })
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Method to validate the recipients before the render of their verification emails
+     *
+     * @param recipients: the recipients to validate
+     * @return the result of the validation as {@link RecipientsValidation}
+     */
+    private RecipientsValidation validateRecipients(String ... recipients) {
+        return MonkeyRecipientsValidator.validate(recipients);
+    }
+
+    /**
+     * Method to send the verification emails to the valid recipients, a failed send does not stop the sends to the
+     * next recipients
+     *
+     * @param priority: the priority of the sends
+     * @param fromText: the text for the "from" section of the emails
+     * @param emailSubject: the subject for the verification emails
+     * @param htmlContent: whether the content of the emails is HTML or plain text
+     * @param validation: the result of the validation of the recipients
+     * @param contentRenderer: the function which returns the renderer of the content of the email of a recipient
+     * @return the results of the sends for each recipient as {@link List} of {@link MonkeySendResult}, the invalid
+     * recipients are reported as {@link SendStatus#INVALID}
+     */
+    private List<MonkeySendResult> sendVerificationEmails(SendPriority priority, String fromText, String emailSubject,
+                                                          boolean htmlContent, RecipientsValidation validation,
+                                                          Function<String, Supplier<MonkeyData>> contentRenderer) {
+        checkPriority(priority);
+        List<MonkeySendResult> results = new ArrayList<>();
+        for (String recipient : validation.getValidRecipients()) {
+            results.add(sendVerificationEmail(priority, fromText, emailSubject, recipient, htmlContent,
+                    contentRenderer.apply(recipient)));
+        }
+        addInvalidResults(results, validation);
+        return results;
+    }
+
+    /**
+     * Method to check that a priority can be honored, the lanes of the priorities exist only when the outbox is
+     * enabled, so without the outbox a priority other than {@link SendPriority#NORMAL} is rejected rather than being
+     * silently ignored
+     *
+     * @param priority: the priority of the sends
+     * @throws IllegalStateException when the priority is not {@link SendPriority#NORMAL} and the outbox is not enabled
+     */
+    private void checkPriority(SendPriority priority) {
+        if(priority != NORMAL && outbox == null)
+            throw new IllegalStateException("The " + priority + " priority requires the outbox to be enabled");
+    }
+
+    /**
+     * Method to report the invalid recipients as {@link SendStatus#INVALID}
+     *
+     * @param results: the results of the sends where add the invalid recipients
+     * @param validation: the result of the validation of the recipients
+     */
+    private static void addInvalidResults(List<MonkeySendResult> results, RecipientsValidation validation) {
+        for (Map.Entry<String, String> invalidRecipient : validation.getInvalidRecipients().entrySet())
+            results.add(new MonkeySendResult(invalidRecipient.getKey(), INVALID, invalidRecipient.getValue(), null));
+    }
+
+    /**
+     * Method to render, build and send a verification email to a recipient
+     *
+     * @param priority: the priority of the send
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @param recipient: the recipient to send the verification email
+     * @param htmlContent: whether the content of the email is HTML or plain text
+     * @param contentRenderer: the renderer of the content of the email
+     *
+     * @return the result of the send as {@link MonkeySendResult}
+     * @apiNote when the {@link MonkeySendEvent} is enabled the durations of the phases are recorded, the errors of the
+     * send are reported in the result, so they do not stop the sends to the next recipients
+     */
+    private MonkeySendResult sendVerificationEmail(SendPriority priority, String fromText, String emailSubject,
+                                                   String recipient, boolean htmlContent,
+                                                   Supplier<MonkeyData> contentRenderer) {
+        MonkeySendEvent sendEvent = new MonkeySendEvent();
+        boolean recording = sendEvent.isEnabled();
+        long phaseStart = 0;
+        if(recording) {
+            sendEvent.begin();
+            phaseStart = System.nanoTime();
+        }
+        MonkeySendResult result = null;
+        try {
+            MonkeyData monkeyData = contentRenderer.get();
+            if(recording) {
+                long renderEnd = System.nanoTime();
+                sendEvent.renderDuration = renderEnd - phaseStart;
+                phaseStart = renderEnd;
+            }
+            EmailPopulatingBuilder emailPopulatingBuilder = initEmailBuilder(fromText, emailSubject);
+            emailPopulatingBuilder.to(recipient);
+            if(htmlContent) {
+                if(monkeyData.textContent != null)
+                    emailPopulatingBuilder.withPlainText(monkeyData.textContent);
+                emailPopulatingBuilder.appendTextHTML(monkeyData.content);
+            } else
+                emailPopulatingBuilder.withPlainText(monkeyData.content);
+            Email email = emailPopulatingBuilder.buildEmail();
+            if(recording) {
+                long buildEnd = System.nanoTime();
+                sendEvent.buildDuration = buildEnd - phaseStart;
+                phaseStart = buildEnd;
+            }
+            sendEmail(email, monkeyData.verificationCode, priority);
+            result = new MonkeySendResult(recipient, outbox != null ? QUEUED : DELIVERED);
+        } catch (MonkeySendRejectedException e) {
+            result = new MonkeySendResult(recipient, THROTTLED, e);
+        } catch (RuntimeException e) {
+            result = new MonkeySendResult(recipient, FAILED, e);
+        } finally {
+            String outcome = result != null ? result.getStatus().name() : FAILED.name();
+            MonkeyAuditLog auditLog = this.auditLog;
+            if(auditLog != null)
+                auditLog.publish(AuditRecordType.SEND, recipient, outcome);
+            if(recording) {
+                sendEvent.deliveryDuration = System.nanoTime() - phaseStart;
+                sendEvent.recipientDomain = recipient.substring(recipient.lastIndexOf('@') + 1);
+                sendEvent.outcome = outcome;
+                sendEvent.commit();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Method to create an {@link EmailPopulatingBuilder}
+     *
+     * @param fromText: the text for the "from" section of the email
+     * @param emailSubject: the subject for the verification email
+     * @return an email builder as {@link EmailPopulatingBuilder}
+     */
+    private EmailPopulatingBuilder initEmailBuilder(String fromText, String emailSubject) {
+        return EmailBuilder.startingBlank()
+                .from(fromText, from)
+                .withSubject(emailSubject);
+    }
+
+    /**
+     * Method to send a verification email
+     *
+     * @param email: the email object to send as email
+     * @param verificationCode: the verification code attached to the verification email
+     * @param priority: the priority of the send
+     *
+     * @throws IllegalStateException when the verifier has been closed
+     * @apiNote when the outbox is enabled the email is appended to it and delivered by its workers following the
+     * priority, otherwise it is delivered synchronously, the priority has been already checked by
+     * {@link #checkPriority(SendPriority)}
+     */
+    private void sendEmail(Email email, String verificationCode, SendPriority priority) {
+        if(outbox != null) {
+            if(closed.get())
+                throw new IllegalStateException("The verifier has been closed");
+            outbox.append(email, verificationCode, priority);
+            return;
+        }
+        List<String> recipients = new ArrayList<>();
+        for (Recipient recipient : email.getToRecipients())
+            recipients.add(recipient.getAddress());
+        long deliveryId = deliveriesCounter.incrementAndGet();
+        inFlightDeliveries.put(deliveryId, recipients);
+        try {
+            if(closed.get())
+                throw new IllegalStateException("The verifier has been closed");
+            deliverEmail(email, verificationCode);
+        } finally {
+            inFlightDeliveries.remove(deliveryId);
+            synchronized (inFlightDeliveries) {
+                inFlightDeliveries.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Method to deliver a verification email and store its verification code
+     *
+     * @param email: the email object to deliver
+     * @param verificationCode: the verification code attached to the verification email, null when the verification is
+     * stateless and nothing must be stored
+     */
+    private void deliverEmail(Email email, String verificationCode) {
+        transport.send(email);
+        if(verificationCode == null)
+            return;
+        MonkeyNegativeLookupFilter negativeLookupFilter = this.negativeLookupFilter;
+        for (Recipient recipient : email.getToRecipients())
+            storeEmailSent(codesStore, negativeLookupFilter, new EmailSent(recipient.getAddress(), verificationCode));
+    }
+
+    /**
+     * Method to store a verification email sent keeping the negative lookup filter updated
+     *
+     * @param codesStore: the store where store the verification email sent
+     * @param negativeLookupFilter: the negative lookup filter to update, null if not enabled
+     * @param emailSent: the verification email sent to store
      */
-    private void removeExpiredVerificationEmails() {
+    private static void storeEmailSent(MonkeyCodesStore codesStore, MonkeyNegativeLookupFilter negativeLookupFilter,
+                                       EmailSent emailSent) {
+        if(negativeLookupFilter != null)
+            negativeLookupFilter.add(emailSent.email);
+        EmailSent previousEmailSent = codesStore.put(emailSent);
+        if(negativeLookupFilter != null && previousEmailSent != null)
+            negativeLookupFilter.remove(emailSent.email);
+    }
+
+    /**
+     * Method to render a compiled template with a verification code generated, the HTML content and its plain text
+     * alternative are rendered in a single pass
+     * @param compiledTemplate: the compiled template to render
+     * @param recipient: the recipient of the verification code
+     * @param variables: the values of the user-defined variables of the recipient, HTML-escaped in the HTML content
+     * @return the template formatted as {@link MonkeyData}
+     */
+    private MonkeyData formatTemplate(MonkeyCompiledTemplate compiledTemplate, String recipient,
+                                      Map<String, String> variables) {
+        String verificationCode = generateVerificationCode(recipient);
+        MonkeyRendition rendition = compiledTemplate.renderAlternatives(Map.of(VERIFICATION_CODE_TAG.getValue(),
+                verificationCode), variables != null ? variables : Map.of());
+        return new MonkeyData(rendition.getHtml(), rendition.getText(), storableVerificationCode(verificationCode));
+    }
+
+    /**
+     * Method to format the content of a template replacing the {@link MonkeyTemplateTag#VERIFICATION_CODE_TAG} with
+     * a verification code generated
+     * @param contentTemplate: the base content template
+     * @param recipient: the recipient of the verification code
+     *
+     * @return the template formatted as {@link MonkeyData}
+     * @throws IllegalArgumentException when the {@link MonkeyTemplateTag#VERIFICATION_CODE_TAG} is missing
+     */
+    private MonkeyData formatVerificationCode(String contentTemplate, String recipient) {
+        String verificationTag = VERIFICATION_CODE_TAG.getTag();
+        if(!contentTemplate.contains(verificationTag))
+            throw new IllegalArgumentException("verification_code tag is missing!");
+        String verificationCode = generateVerificationCode(recipient);
+        return new MonkeyData(
+                contentTemplate.replaceAll(verificationTag, verificationCode),
+            storableVerificationCode(verificationCode)
+        );
+    }
+
+    /**
+     * Method to generate a verification code using the {@link #verificationCodeType} to create the correct code
+     * @param recipient: the recipient of the verification code
+     * @return the verification code as {@link String}
+     * @apiNote when the time-based codes are enabled the code is derived from the recipient and the current time-step
+     */
+    private String generateVerificationCode(String recipient) {
+        MonkeyTimeBasedCodes timeBasedCodes = this.timeBasedCodes;
+        if(timeBasedCodes != null)
+            return timeBasedCodes.generateCode(recipient);
+        String verificationCode = "";
+        switch (verificationCodeType) {
+            case NUMBERS -> verificationCode = randomNumeric(6);
+            case CHARACTERS -> verificationCode = randomAlphabetic(6);
+            case ALPHANUMERIC -> verificationCode = randomAlphanumeric(6);
+        }
+        return verificationCode;
+    }
+
+    /**
+     * Method to get the verification code to store after the delivery of the verification email
+     * @param verificationCode: the verification code generated
+     * @return the verification code to store as {@link String}, null when the time-based codes are enabled, so nothing
+     * must be stored
+     */
+    private String storableVerificationCode(String verificationCode) {
+        return timeBasedCodes == null ? verificationCode : null;
+    }
+
+    /**
+     * Method to verify the code sent by the user with corresponding the verification code of the verification email sent
+     * @param userEmail: the email of the user
+     * @param userCode: the verification code sent by the user
+     * @param actions: the actions to execute after the verification
+     * @apiNote the failed verifications of an email are limited, see {@link #setMaxFailedAttempts(int)}
+     */
+    public void verifyCodeSent(String userEmail, String userCode, MonkeyVerificationActions actions) {
+        userEmail = MonkeyRecipientsValidator.normalize(userEmail);
+        removeExpiredVerificationEmails();
+        MonkeyVerifyEvent verifyEvent = new MonkeyVerifyEvent();
+        boolean recording = verifyEvent.isEnabled();
+        long lookupStart = 0;
+        if(recording) {
+            verifyEvent.begin();
+            lookupStart = System.nanoTime();
+        }
+        MonkeyTimeBasedCodes timeBasedCodes = this.timeBasedCodes;
+        EmailSent emailSent = null;
+        boolean verified;
+        if(timeBasedCodes != null)
+            verified = timeBasedCodes.verifyCode(userEmail, userCode);
+        else {
+            MonkeyNegativeLookupFilter negativeLookupFilter = this.negativeLookupFilter;
+            if(negativeLookupFilter == null || negativeLookupFilter.mightContain(userEmail))
+                emailSent = codesStore.get(userEmail);
+            MonkeyFailedAttempts failedAttempts = this.failedAttempts;
+            verified = emailSent != null
+                    && (failedAttempts == null || failedAttempts.tryAttempt(userEmail, emailSent.timestamp))
+                    && userCode.equals(emailSent.verificationCode);
+            if(verified && failedAttempts != null)
+                failedAttempts.reset(userEmail);
+        }
+        if(recording)
+            verifyEvent.lookupDuration = System.nanoTime() - lookupStart;
+        if(verified && emailSent != null)
+            removeEmailSent(userEmail);
+        MonkeyAuditLog auditLog = this.auditLog;
+        if(recording || auditLog != null) {
+            String result;
+            if(verified)
+                result = "SUCCESS";
+            else if(emailSent != null || timeBasedCodes != null)
+                result = "WRONG_CODE";
+            else
+                result = "NOT_FOUND";
+            if(auditLog != null)
+                auditLog.publish(AuditRecordType.VERIFY, userEmail, result);
+            if(recording) {
+                verifyEvent.result = result;
+                verifyEvent.commit();
+            }
+        }
+        if(verified)
+            actions.onSuccess();
+        else
+            actions.onFailure();
+    }
+
+    /**
+     * Method to verify the token of a magic link clicked by the user, the verification checks only the signature and
+     * the expiration of the token, so no verification email sent is looked up
+     * @param userEmail: the email of the user
+     * @param token: the token of the magic link
+     * @param actions: the actions to execute after the verification
+     *
+     * @throws IllegalStateException when the magic links are not enabled with {@link #setMagicLinkSigner}
+     */
+    public void verifyMagicLink(String userEmail, String token, MonkeyVerificationActions actions) {
+        MonkeyMagicLinkSigner magicLinkSigner = this.magicLinkSigner;
+        if(magicLinkSigner == null)
+            throw new IllegalStateException("The magic links are not enabled");
+        userEmail = MonkeyRecipientsValidator.normalize(userEmail);
+        boolean verified = magicLinkSigner.verify(token, userEmail);
+        MonkeyAuditLog auditLog = this.auditLog;
+        if(auditLog != null)
+            auditLog.publish(AuditRecordType.VERIFY, userEmail, verified ? "SUCCESS" : "INVALID_TOKEN");
+        if(verified)
+            actions.onSuccess();
+        else
+            actions.onFailure();
+    }
+
+    /**
+     * Method to remove from the {@link #codesStore} the verification email sent to an email
+     * @param email: the email of the recipient user
+     */
+    private void removeEmailSent(String email) {
+        EmailSent emailSent = codesStore.remove(email);
+        MonkeyNegativeLookupFilter negativeLookupFilter = this.negativeLookupFilter;
+        if(emailSent != null && negativeLookupFilter != null)
+            negativeLookupFilter.remove(email);
+    }
+
+    /**
+     * Method to remove from the {@link #codesStore} the emails which their timestamp is over the {@link #keepEmailValid}
+     * threshold chosen, the emails removed are notified to the expiry listener if set <br>
+     * No-any params required
+     *
+     * @apiNote this routine is executed if the {@link #keepEmailValid} is different from {@link KeepEmailValid#ALWAYS_KEEP_VALID}.
+     * It is executed before each verification, invoke it periodically to be notified of the expired emails also when
+     * no verification is executed
+     */
+    public void removeExpiredVerificationEmails() {
         if(keepEmailValid != ALWAYS_KEEP_VALID) {
-            long currentTimestamp = System.currentTimeMillis();
-            for (Iterator<Object> iterator = emailsSent.elements().asIterator(); iterator.hasNext(); ) {
-                EmailSent emailSent = (EmailSent) iterator.next();
-                if((currentTimestamp - emailSent.timestamp) >= keepEmailValid.time)
-                    emailsSent.remove(emailSent.email);
+            MonkeyExpirySweepEvent sweepEvent = new MonkeyExpirySweepEvent();
+            sweepEvent.begin();
+            int scannedEntries = sweepEvent.shouldCommit() ? codesStore.size() : 0;
+            List<EmailSent> removedEmails = codesStore.removeExpired(System.currentTimeMillis() - keepEmailValid.time);
+            MonkeyNegativeLookupFilter negativeLookupFilter = this.negativeLookupFilter;
+            if(negativeLookupFilter != null)
+                for (EmailSent emailSent : removedEmails)
+                    negativeLookupFilter.remove(emailSent.email);
+            ExpiryNotifier expiryNotifier = this.expiryNotifier;
+            if(expiryNotifier != null && !removedEmails.isEmpty())
+                expiryNotifier.notifyExpired(removedEmails, keepEmailValid.time);
+            if(sweepEvent.shouldCommit()) {
+                sweepEvent.scannedEntries = scannedEntries;
+                sweepEvent.removedEntries = removedEmails.size();
+                sweepEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Method to close the verifier: the new sends are rejected, the in-flight deliveries are drained within the
+     * {@link #drainTimeout} and then the {@link #transport} is closed <br>
+     * No-any params required
+     *
+     * @apiNote the recipients of the deliveries not completed in time can be obtained with
+     * {@link #getUnflushedRecipients()}
+     */
+    @Override
+    public void close() {
+        if(!closed.compareAndSet(false, true))
+            return;
+        long deadline = System.currentTimeMillis() + drainTimeout;
+        if(outbox != null)
+            unflushedRecipients.addAll(outbox.close(drainTimeout));
+        synchronized (inFlightDeliveries) {
+            long remaining = deadline - System.currentTimeMillis();
+            while (!inFlightDeliveries.isEmpty() && remaining > 0) {
+                try {
+                    inFlightDeliveries.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.currentTimeMillis();
+            }
+        }
+        for (List<String> recipients : inFlightDeliveries.values())
+            unflushedRecipients.addAll(recipients);
+        transport.close(deadline - System.currentTimeMillis());
+    }
+
+    /**
+     * Method to enable the outbox mode with the {@link #DEFAULT_OUTBOX_WORKERS}: each verification email is appended
+     * to a local on-disk log and the send methods return without waiting its delivery
+     *
+     * @param directory: the directory where store the log of the outbox
+     *
+     * @throws IOException when an error occurred during the operations with the log file
+     * @apiNote the verification emails not delivered found in the log, for example after a crash, are replayed
+     */
+    public void enableOutbox(File directory) throws IOException {
+        enableOutbox(directory, DEFAULT_OUTBOX_WORKERS);
+    }
+
+    /**
+     * Method to enable the outbox mode: each verification email is appended to a local on-disk log and the send
+     * methods return without waiting its delivery
+     *
+     * @param directory: the directory where store the log of the outbox
+     * @param workers: the number of the workers which deliver the verification emails, at least two, so one is always
+     * reserved to the {@link SendPriority#INTERACTIVE} sends
+     *
+     * @throws IOException when an error occurred during the operations with the log file
+     * @throws IllegalArgumentException when the workers are less than two
+     * @throws IllegalStateException when the outbox is already enabled or the verifier has been closed
+     * @apiNote the verification emails not delivered found in the log, for example after a crash, are replayed and
+     * their verification codes are stored when delivered
+     */
+    public synchronized void enableOutbox(File directory, int workers) throws IOException {
+        if(closed.get())
+            throw new IllegalStateException("The verifier has been closed");
+        if(outbox != null)
+            throw new IllegalStateException("The outbox is already enabled");
+        outbox = new MonkeyOutbox(directory, workers, this::deliverEmail, recipients -> {
+            Consumer<List<String>> deadLetterListener = this.deadLetterListener;
+            if(deadLetterListener != null)
+                deadLetterListener.accept(recipients);
+        });
+    }
+
+    /**
+     * Method to set the {@link #deadLetterListener} instance
+     *
+     * @param deadLetterListener: the listener notified with the recipients of the verification emails of the outbox
+     * whose delivery attempts all failed, null to stop notifying them
+     *
+     * @apiNote the verification emails dead-lettered are removed from the outbox, so they must be sent again
+     */
+    public void setDeadLetterListener(Consumer<List<String>> deadLetterListener) {
+        this.deadLetterListener = deadLetterListener;
+    }
+
+    /**
+     * Method to get the number of the verification emails of the outbox whose delivery attempts all failed <br>
+     * No-any params required
+     *
+     * @return the number of the verification emails dead-lettered as long
+     */
+    public long getDeadLetterDeliveries() {
+        MonkeyOutbox outbox = this.outbox;
+        if(outbox == null)
+            return 0;
+        return outbox.getDeadLetters();
+    }
+
+    /**
+     * Method to get the number of the verification emails appended to the outbox and not delivered yet <br>
+     * No-any params required
+     *
+     * @return the number of the verification emails not delivered yet as int
+     */
+    public int getPendingDeliveries() {
+        MonkeyOutbox outbox = this.outbox;
+        if(outbox == null)
+            return 0;
+        return outbox.getPendingRecords();
+    }
+
+    /**
+     * Method to get whether the verifier has been closed <br>
+     * No-any params required
+     *
+     * @return whether the verifier has been closed as boolean
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Method to set the {@link #drainTimeout} instance
+     *
+     * @param drainTimeout: the time, in milliseconds, to wait for the in-flight deliveries when the verifier is closed
+     *
+     * @throws IllegalArgumentException when the timeout is negative
+     */
+    public void setDrainTimeout(long drainTimeout) {
+        if(drainTimeout < 0)
+            throw new IllegalArgumentException("The drain timeout cannot be negative");
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * Method to get {@link #drainTimeout} instance <br>
+     * No-any params required
+     *
+     * @return {@link #drainTimeout} instance as long
+     */
+    public long getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    /**
+     * Method to enable the time-based verification codes with the {@link #DEFAULT_MAX_USED_CODES} and the
+     * {@link #DEFAULT_MAX_FAILED_ATTEMPTS}: each code is derived from an HMAC of the secret, of the recipient and of
+     * the current time-step, so it is verified recomputing it and no verification email sent is stored
+     *
+     * @param secret: the secret used to derive the codes, it must be shared by all the nodes which verify the codes
+     *
+     * @throws IllegalStateException when the {@link #keepEmailValid} is {@link KeepEmailValid#ALWAYS_KEEP_VALID}
+     */
+    public void enableTimeBasedCodes(byte[] secret) {
+        enableTimeBasedCodes(secret, DEFAULT_MAX_USED_CODES);
+    }
+
+    /**
+     * Method to enable the time-based verification codes with the {@link #DEFAULT_MAX_FAILED_ATTEMPTS}: each code is
+     * derived from an HMAC of the secret, of the recipient and of the current time-step, so it is verified recomputing
+     * it and no verification email sent is stored
+     *
+     * @param secret: the secret used to derive the codes, it must be shared by all the nodes which verify the codes
+     * @param maxUsedCodes: the max number of the used codes remembered to reject their reuse, zero to not remember them
+     *
+     * @throws IllegalStateException when the {@link #keepEmailValid} is {@link KeepEmailValid#ALWAYS_KEEP_VALID}
+     * @throws IllegalArgumentException when the secret is empty or the max number of the used codes is negative
+     */
+    public void enableTimeBasedCodes(byte[] secret, int maxUsedCodes) {
+        enableTimeBasedCodes(secret, maxUsedCodes, DEFAULT_MAX_FAILED_ATTEMPTS);
+    }
+
+    /**
+     * Method to enable the time-based verification codes: each code is derived from an HMAC of the secret, of the
+     * recipient and of the current time-step, so it is verified recomputing it and no verification email sent is stored
+     *
+     * @param secret: the secret used to derive the codes, it must be shared by all the nodes which verify the codes
+     * @param maxUsedCodes: the max number of the used codes remembered to reject their reuse, zero to not remember them
+     * @param maxFailedAttempts: the max number of the failed verifications of an email within the validity of its code,
+     * zero to not limit them
+     *
+     * @throws IllegalStateException when the {@link #keepEmailValid} is {@link KeepEmailValid#ALWAYS_KEEP_VALID}
+     * @throws IllegalArgumentException when the secret is empty or the max numbers of the used codes or of the failed
+     * attempts are negative
+     * @apiNote the {@link #keepEmailValid} time is used as time-step and the codes of the current and the previous
+     * time-steps are accepted, so a code is valid for at least the {@link #keepEmailValid} time. When an email exceeds
+     * the failed attempts its codes are rejected until the code of its first failed attempt expires
+     */
+    public void enableTimeBasedCodes(byte[] secret, int maxUsedCodes, int maxFailedAttempts) {
+        if(keepEmailValid == ALWAYS_KEEP_VALID)
+            throw new IllegalStateException("The time-based codes require an expiring keepEmailValid");
+        if(secret == null || secret.length == 0)
+            throw new IllegalArgumentException("The secret cannot be empty");
+        if(maxUsedCodes < 0)
+            throw new IllegalArgumentException("The max number of the used codes cannot be negative");
+        if(maxFailedAttempts < 0)
+            throw new IllegalArgumentException("The max number of the failed attempts cannot be negative");
+        timeBasedCodes = new MonkeyTimeBasedCodes(secret, verificationCodeType, keepEmailValid.time, maxUsedCodes,
+                maxFailedAttempts);
+    }
+
+    /**
+     * Method to check whether the time-based verification codes are enabled <br>
+     * No-any params required
+     *
+     * @return whether the time-based verification codes are enabled as boolean
+     */
+    public boolean areTimeBasedCodesEnabled() {
+        return timeBasedCodes != null;
+    }
+
+    /**
+     * Method to limit the failed verifications of an email whose code is stored in the {@link #codesStore}
+     *
+     * @param maxFailedAttempts: the max number of the failed verifications of an email within the validity of its
+     * code, zero to not limit them
+     *
+     * @throws IllegalArgumentException when the max number of the failed attempts is negative
+     * @apiNote by default the failed verifications are limited to {@link #DEFAULT_MAX_FAILED_ATTEMPTS}, when an email
+     * exceeds them its code is rejected until a new verification email is sent to it. The failed verifications of the
+     * time-based codes are limited by {@link #enableTimeBasedCodes(byte[], int, int)}
+     */
+    public void setMaxFailedAttempts(int maxFailedAttempts) {
+        if(maxFailedAttempts < 0)
+            throw new IllegalArgumentException("The max number of the failed attempts cannot be negative");
+        failedAttempts = maxFailedAttempts > 0 ? new MonkeyFailedAttempts(maxFailedAttempts, 0) : null;
+    }
+
+    /**
+     * Method to set the {@link #codesStore} instance, for example to share the pending verification codes between
+     * more nodes
+     *
+     * @param codesStore: the store of the verification emails sent
+     *
+     * @apiNote the verification emails pending in the current store are moved into the new one in the order of their
+     * send, so invoke this method while no send or verification is in progress. The negative lookup filter, if enabled,
+     * is rebuilt from the verification emails moved, but it is disabled when the new store already contains some
+     * verification emails because it does not know them
+     */
+    public synchronized void setCodesStore(MonkeyCodesStore codesStore) {
+        MonkeyCodesStore currentCodesStore = this.codesStore;
+        if(codesStore == currentCodesStore)
+            return;
+        currentCodesStore.setEvictionListener(null);
+        MonkeyNegativeLookupFilter negativeLookupFilter = this.negativeLookupFilter;
+        if(negativeLookupFilter != null) {
+            if(codesStore.size() > 0)
+                negativeLookupFilter = null;
+            else {
+                MonkeyNegativeLookupFilter rebuiltFilter = negativeLookupFilter.emptyCopy();
+                codesStore.setEvictionListener(emailSent -> rebuiltFilter.remove(emailSent.getEmail()));
+                negativeLookupFilter = rebuiltFilter;
             }
         }
+        // all the verification emails are sent before Long.MAX_VALUE, so the whole store is drained
+        List<EmailSent> pendingEmails = new ArrayList<>(currentCodesStore.removeExpired(Long.MAX_VALUE));
+        pendingEmails.sort(Comparator.comparingLong(EmailSent::getTimestamp));
+        for (EmailSent emailSent : pendingEmails)
+            storeEmailSent(codesStore, negativeLookupFilter, emailSent);
+        this.codesStore = codesStore;
+        this.negativeLookupFilter = negativeLookupFilter;
+    }
+
+    /**
+     * Method to bound the number of the verification emails pending, useful with the
+     * {@link KeepEmailValid#ALWAYS_KEEP_VALID} where the verification emails never verified are never removed
+     *
+     * @param maxPendingVerifications: the max number of the verification emails pending
+     * @param evictionPolicy: the policy used to choose the verification email to evict
+     *
+     * @throws IllegalArgumentException when the max number of the verification emails pending is not positive
+     * @apiNote a {@link MonkeyBoundedCodesStore} replaces the current {@link #codesStore} and the verification emails
+     * pending are moved into it, the oldest ones are evicted when they exceed the max number
+     */
+    public void setMaxPendingVerifications(int maxPendingVerifications, EvictionPolicy evictionPolicy) {
+        setCodesStore(new MonkeyBoundedCodesStore(maxPendingVerifications, evictionPolicy));
+    }
+
+    /**
+     * Method to get {@link #codesStore} instance <br>
+     * No-any params required
+     *
+     * @return {@link #codesStore} instance as {@link MonkeyCodesStore}
+     */
+    public MonkeyCodesStore getCodesStore() {
+        return codesStore;
+    }
+
+    /**
+     * Method to enable the negative lookup filter with the {@link #DEFAULT_FILTER_FALSE_POSITIVE_RATE}
+     *
+     * @param expectedEntries: the expected number of the verification emails pending at the same time
+     *
+     * @throws IllegalStateException when some verification emails are already pending in the {@link #codesStore}
+     */
+    public void enableNegativeLookupFilter(int expectedEntries) {
+        enableNegativeLookupFilter(expectedEntries, DEFAULT_FILTER_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Method to enable the negative lookup filter: it is an in-process counting Bloom filter maintained when the
+     * verification emails are stored and expired, the verifications of the emails which definitely have no verification
+     * code pending are rejected without looking up the {@link #codesStore}
+     *
+     * @param expectedEntries: the expected number of the verification emails pending at the same time
+     * @param falsePositiveRate: the rate of the lookups executed for the emails without a verification code pending
+     *
+     * @throws IllegalStateException when some verification emails are already pending in the {@link #codesStore}
+     * @throws IllegalArgumentException when the expected entries are not positive or the rate is not between 0 and 1
+     * @apiNote the filter knows only the verification emails sent by this verifier, so enable it only when this
+     * verifier is the only one which stores verification emails in the {@link #codesStore}
+     */
+    public synchronized void enableNegativeLookupFilter(int expectedEntries, double falsePositiveRate) {
+        if(expectedEntries <= 0)
+            throw new IllegalArgumentException("The expected entries must be greater than zero");
+        if(falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1");
+        if(codesStore.size() > 0)
+            throw new IllegalStateException("The filter must be enabled before the verification emails are sent");
+        MonkeyNegativeLookupFilter negativeLookupFilter = new MonkeyNegativeLookupFilter(expectedEntries,
+                falsePositiveRate);
+        codesStore.setEvictionListener(emailSent -> negativeLookupFilter.remove(emailSent.getEmail()));
+        this.negativeLookupFilter = negativeLookupFilter;
+    }
+
+    /**
+     * Method to set the {@link #renderPool} instance
+     *
+     * @param renderPool: the pool where the personalized verification emails are rendered in parallel
+     *
+     * @apiNote by default the {@link ForkJoinPool#commonPool()} is used
+     */
+    public void setRenderPool(ForkJoinPool renderPool) {
+        this.renderPool = renderPool;
+    }
+
+    /**
+     * Method to set the {@link #auditLog} instance to record every verification code issued and every verification
+     * attempt
+     *
+     * @param auditLog: the audit log where record the sends and the verifications, null to stop recording them
+     *
+     * @apiNote the records are published without blocking, the audit log must be closed by its owner
+     */
+    public void setAuditLog(MonkeyAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Method to get {@link #auditLog} instance <br>
+     * No-any params required
+     *
+     * @return {@link #auditLog} instance as {@link MonkeyAuditLog}
+     */
+    public MonkeyAuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    /**
+     * Method to set the {@link #magicLinkSigner} instance to enable the magic links
+     *
+     * @param magicLinkSigner: the signer of the magic links, null to disable them
+     */
+    public void setMagicLinkSigner(MonkeyMagicLinkSigner magicLinkSigner) {
+        this.magicLinkSigner = magicLinkSigner;
+    }
+
+    /**
+     * Method to get {@link #magicLinkSigner} instance <br>
+     * No-any params required
+     *
+     * @return {@link #magicLinkSigner} instance as {@link MonkeyMagicLinkSigner}
+     */
+    public MonkeyMagicLinkSigner getMagicLinkSigner() {
+        return magicLinkSigner;
+    }
+
+    /**
+     * Method to set the listener notified of the verification emails expired with the {@link #DEFAULT_EXPIRY_BATCH_SIZE}
+     *
+     * @param expiryListener: the listener to notify, null to stop notifying the expired emails
+     * @param executor: the executor where the listener is notified
+     *
+     * @throws IllegalStateException when the {@link #keepEmailValid} is {@link KeepEmailValid#ALWAYS_KEEP_VALID}
+     */
+    public void setExpiryListener(MonkeyExpiryListener expiryListener, Executor executor) {
+        setExpiryListener(expiryListener, executor, DEFAULT_EXPIRY_BATCH_SIZE);
+    }
+
+    /**
+     * Method to set the listener notified of the verification emails expired: the emails removed by each removal of
+     * the expired verification emails are split in batches and each batch is notified on the executor, so the removal
+     * is never blocked by the listener
+     *
+     * @param expiryListener: the listener to notify, null to stop notifying the expired emails
+     * @param executor: the executor where the listener is notified
+     * @param maxBatchSize: the max number of the verification emails expired notified in a batch
+     *
+     * @throws IllegalStateException when the {@link #keepEmailValid} is {@link KeepEmailValid#ALWAYS_KEEP_VALID}
+     * @throws IllegalArgumentException when the max size of the batches is not positive
+     * @apiNote the batches rejected by the executor are dropped. With the time-based codes no verification email is
+     * stored, so no verification email expired is notified
+     */
+    public void setExpiryListener(MonkeyExpiryListener expiryListener, Executor executor, int maxBatchSize) {
+        if(expiryListener == null) {
+            expiryNotifier = null;
+            return;
+        }
+        if(keepEmailValid == ALWAYS_KEEP_VALID)
+            throw new IllegalStateException("The expiry notifications require an expiring keepEmailValid");
+        if(maxBatchSize <= 0)
+            throw new IllegalArgumentException("The max size of the batches must be greater than zero");
+        expiryNotifier = new ExpiryNotifier(expiryListener, executor, maxBatchSize);
+    }
+
+    /**
+     * Method to get {@link #unflushedRecipients} instance <br>
+     * No-any params required
+     *
+     * @return {@link #unflushedRecipients} instance as {@link List} of {@link String}
+     */
+    public List<String> getUnflushedRecipients() {
+        synchronized (unflushedRecipients) {
+            return new ArrayList<>(unflushedRecipients);
+        }
     }
 
     /**
@@ -543,6 +1788,16 @@ public class MonkeyVerifier {
         return host;
     }
 
+    /**
+     * Method to get {@link #transport} instance <br>
+     * No-any params required
+     *
+     * @return {@link #transport} instance as {@link MonkeyTransport}
+     */
+    public MonkeyTransport getTransport() {
+        return transport;
+    }
+
     /**
      * Method to get {@link #from} instance <br>
      * No-any params required
@@ -573,6 +1828,45 @@ public class MonkeyVerifier {
         return keepEmailValid;
     }
 
+    /**
+     * Method to get the default monkey template compiled <br>
+     * No-any params required
+     *
+     * @return the default monkey template compiled as {@link MonkeyCompiledTemplate}
+     */
+    static MonkeyCompiledTemplate getDefaultTemplate() {
+        return MonkeyDefaultTemplate.TEMPLATE;
+    }
+
+    /**
+     * The {@code MonkeyDefaultTemplate} class is useful to load the default monkey template only when it is used the
+     * first time
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class MonkeyDefaultTemplate {
+
+        /**
+         * {@code TEMPLATE} the default monkey template compiled
+         *
+         * @apiNote the compiled form produced at build time is used if available, otherwise the template is compiled
+         * from the <b>default_monkey_template.html</b> resource file
+         */
+        private static final MonkeyCompiledTemplate TEMPLATE;
+
+        static {
+            try {
+                MonkeyCompiledTemplate template = loadCompiledTemplate(DEFAULT_MONKEY_TEMPLATE);
+                if(template == null)
+                    template = MonkeyCompiledTemplate.compile(getResourceContent(DEFAULT_MONKEY_TEMPLATE, context));
+                TEMPLATE = template;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+    }
+
     /**
      * The {@code MonkeyData} class is useful to store the data to send in the verification email
      *
@@ -583,7 +1877,12 @@ public class MonkeyVerifier {
         /**
          * {@code content} the content of the email
          */
-        private String content;
+        private final String content;
+
+        /**
+         * {@code textContent} the plain text alternative of the HTML content of the email
+         */
+        private final String textContent;
 
         /**
          * {@code verificationCode} the verification code of the email
@@ -598,17 +1897,21 @@ public class MonkeyVerifier {
          *
          */
         public MonkeyData(String content, String verificationCode) {
-            this.content = content;
-            this.verificationCode = verificationCode;
+            this(content, null, verificationCode);
         }
 
         /**
-         * Method to set the {@link #content} instance
+         * Constructor to init the {@link MonkeyData} class
          *
          * @param content: the content of the email
+         * @param textContent: the plain text alternative of the HTML content of the email
+         * @param verificationCode: the verification code of the email
+         *
          */
-        public void setContent(String content) {
+        public MonkeyData(String content, String textContent, String verificationCode) {
             this.content = content;
+            this.textContent = textContent;
+            this.verificationCode = verificationCode;
         }
 
     }
@@ -616,10 +1919,12 @@ public class MonkeyVerifier {
     /**
      * The {@code EmailSent} class is useful to store the details of a verification email sent
      *
+     * @apiNote its verification code is not exposed outside the package, a {@link MonkeyCodesStore} which persists it
+     * outside the memory relies on its serialized form
      * @author N7ghtm4r3 - Tecknobit
      * @see Serializable
      */
-    private static final class EmailSent implements Serializable {
+    public static final class EmailSent implements Serializable {
 
         /**
          * {@code email} the email of the recipient user
@@ -643,12 +1948,105 @@ public class MonkeyVerifier {
          * @param verificationCode: the value of the verification code generated
          *
          */
-        public EmailSent(String email, String verificationCode) {
+        EmailSent(String email, String verificationCode) {
+            this(email, System.currentTimeMillis(), verificationCode);
+        }
+
+        /**
+         * Constructor to init the {@link EmailSent} class
+         *
+         * @param email: the email of the recipient user
+         * @param timestamp: the timestamp when the email has been sent
+         * @param verificationCode: the value of the verification code generated
+         *
+         */
+        EmailSent(String email, long timestamp, String verificationCode) {
             this.email = email;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
             this.verificationCode = verificationCode;
         }
 
+        /**
+         * Method to get {@link #email} instance <br>
+         * No-any params required
+         *
+         * @return {@link #email} instance as {@link String}
+         */
+        public String getEmail() {
+            return email;
+        }
+
+        /**
+         * Method to get {@link #timestamp} instance <br>
+         * No-any params required
+         *
+         * @return {@link #timestamp} instance as long
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+    }
+
+    /**
+     * The {@code ExpiryNotifier} class is useful to notify in batches the verification emails expired to an
+     * {@link MonkeyExpiryListener}
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class ExpiryNotifier {
+
+        /**
+         * {@code expiryListener} the listener to notify
+         */
+        private final MonkeyExpiryListener expiryListener;
+
+        /**
+         * {@code executor} the executor where the listener is notified
+         */
+        private final Executor executor;
+
+        /**
+         * {@code maxBatchSize} the max number of the verification emails expired notified in a batch
+         */
+        private final int maxBatchSize;
+
+        /**
+         * Constructor to init the {@link ExpiryNotifier} class
+         *
+         * @param expiryListener: the listener to notify
+         * @param executor: the executor where the listener is notified
+         * @param maxBatchSize: the max number of the verification emails expired notified in a batch
+         *
+         */
+        private ExpiryNotifier(MonkeyExpiryListener expiryListener, Executor executor, int maxBatchSize) {
+            this.expiryListener = expiryListener;
+            this.executor = executor;
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        /**
+         * Method to notify the verification emails expired, split in batches
+         *
+         * @param removedEmails: the verification emails removed because expired
+         * @param validity: the time, in milliseconds, the verification emails were valid
+         */
+        private void notifyExpired(List<EmailSent> removedEmails, long validity) {
+            List<MonkeyExpiredEmail> expiredEmails = new ArrayList<>(removedEmails.size());
+            for (EmailSent emailSent : removedEmails)
+                expiredEmails.add(new MonkeyExpiredEmail(emailSent.email, emailSent.timestamp,
+                        emailSent.timestamp + validity));
+            for (int j = 0; j < expiredEmails.size(); j += maxBatchSize) {
+                List<MonkeyExpiredEmail> batch = List.copyOf(expiredEmails.subList(j, Math.min(j + maxBatchSize,
+                        expiredEmails.size())));
+                try {
+                    executor.execute(() -> expiryListener.onExpired(batch));
+                } catch (RejectedExecutionException ignored) {
+                    // the batch is dropped, the verification emails have been already removed
+                }
+            }
+        }
+
     }
 
 }
@@ -0,0 +1,34 @@
+package com.tecknobit.monkey;
+
+import jdk.jfr.*;
+
+/**
+ * The {@code MonkeyVerifyEvent} class is useful to record in the JDK Flight Recorder the details of each verification
+ * of a code sent by a user
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ * @apiNote the event is disabled by default, it must be enabled in the recording settings, e.g.
+ * <b>com.tecknobit.monkey.Verify#enabled=true</b>
+ */
+@Name("com.tecknobit.monkey.Verify")
+@Label("Monkey Verify")
+@Category("Monkey")
+@Description("A verification code checked by the MonkeyVerifier")
+@Enabled(false)
+@StackTrace(false)
+public class MonkeyVerifyEvent extends Event {
+
+    /**
+     * {@code lookupDuration} the duration of the lookup of the verification email sent
+     */
+    @Label("Lookup Duration")
+    @Timespan
+    long lookupDuration;
+
+    /**
+     * {@code result} the result of the verification
+     */
+    @Label("Result")
+    String result;
+
+}
@@ -0,0 +1,151 @@
+package com.tecknobit.monkey;
+
+import org.junit.jupiter.api.Test;
+import org.simplejavamail.api.email.Email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code MonkeyAdaptiveConcurrencyTransportTest} class is useful to test the
+ * {@link MonkeyAdaptiveConcurrencyTransport} against a stand-in relay whose latency and failures are injected by the
+ * test
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeyAdaptiveConcurrencyTransportTest {
+
+    @Test
+    public void limitGrowsWhileLatencyIsStable() throws InterruptedException {
+        StandInRelay relay = new StandInRelay(5);
+        MonkeyAdaptiveConcurrencyTransport transport = new MonkeyAdaptiveConcurrencyTransport(relay, 2, 1, 8, 2,
+                0.9, 5000);
+        sendConcurrently(transport, 8, 20);
+        assertTrue(transport.getLimit() > 2, "The limit must grow while the relay keeps its latency");
+        assertEquals(0, transport.getInFlightSends());
+        assertEquals(0, transport.getRejectedSends());
+    }
+
+    @Test
+    public void backsOffOnceForEachRoundTrip() throws InterruptedException {
+        StandInRelay relay = new StandInRelay(2);
+        MonkeyAdaptiveConcurrencyTransport transport = new MonkeyAdaptiveConcurrencyTransport(relay, 10, 1, 10, 2,
+                0.9, 5000);
+        transport.send(null);
+        relay.latency = 100;
+        sendConcurrently(transport, 10, 1);
+        assertEquals(9, transport.getLimit(), "The slow sends of the same round trip must decrease the limit once");
+    }
+
+    @Test
+    public void backsOffForEachFailedRoundTrip() {
+        StandInRelay relay = new StandInRelay(1);
+        relay.failing = true;
+        MonkeyAdaptiveConcurrencyTransport transport = new MonkeyAdaptiveConcurrencyTransport(relay, 8, 2, 8, 2,
+                0.5, 5000);
+        for (int j = 0; j < 3; j++)
+            assertThrows(IllegalStateException.class, () -> transport.send(null));
+        assertEquals(2, transport.getLimit(), "The limit must not go below the min limit");
+        assertEquals(0, transport.getInFlightSends());
+    }
+
+    @Test
+    public void rejectsWhenNoSlotIsFreedInTime() throws InterruptedException {
+        StandInRelay relay = new StandInRelay(300);
+        MonkeyAdaptiveConcurrencyTransport transport = new MonkeyAdaptiveConcurrencyTransport(relay, 1, 1, 1, 2,
+                0.9, 20);
+        Thread slowSend = new Thread(() -> transport.send(null));
+        slowSend.start();
+        while (relay.startedSends.get() == 0)
+            Thread.onSpinWait();
+        assertThrows(MonkeySendRejectedException.class, () -> transport.send(null));
+        assertEquals(1, transport.getRejectedSends());
+        slowSend.join();
+        assertEquals(0, transport.getInFlightSends());
+    }
+
+    /**
+     * Method to send from several threads at the same time
+     *
+     * @param transport: the transport to use
+     * @param threads: the number of the threads which send
+     * @param sends: the number of the sends of each thread
+     */
+    private static void sendConcurrently(MonkeyTransport transport, int threads,
+                                         int sends) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> senders = new ArrayList<>();
+        for (int j = 0; j < threads; j++) {
+            Thread sender = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < sends; i++)
+                    transport.send(null);
+            });
+            sender.start();
+            senders.add(sender);
+        }
+        start.countDown();
+        for (Thread sender : senders)
+            sender.join();
+    }
+
+    /**
+     * The {@code StandInRelay} class is useful to stand in for a relay with an injected latency
+     *
+     * @author N7ghtm4r3 - Tecknobit
+     */
+    private static final class StandInRelay implements MonkeyTransport {
+
+        /**
+         * {@code startedSends} the number of the sends started
+         */
+        private final AtomicInteger startedSends = new AtomicInteger();
+
+        /**
+         * {@code latency} the latency, in milliseconds, of each send
+         */
+        private volatile long latency;
+
+        /**
+         * {@code failing} whether the sends fail after their latency
+         */
+        private volatile boolean failing;
+
+        /**
+         * Constructor to init the {@link StandInRelay} class
+         *
+         * @param latency: the latency, in milliseconds, of each send
+         *
+         */
+        private StandInRelay(long latency) {
+            this.latency = latency;
+        }
+
+        /**
+         * Method to simulate the delivery of an email
+         *
+         * @param email: the email to deliver
+         */
+        @Override
+        public void send(Email email) {
+            startedSends.incrementAndGet();
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if(failing)
+                throw new IllegalStateException("The relay refused the email");
+        }
+
+    }
+
+}
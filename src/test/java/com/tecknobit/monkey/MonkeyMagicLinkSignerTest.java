@@ -0,0 +1,69 @@
+package com.tecknobit.monkey;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.tecknobit.monkey.MonkeyMagicLinkSigner.MAX_TOKEN_VALIDITY;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code MonkeyMagicLinkSignerTest} class is useful to test the tokens signed and verified by a
+ * {@link MonkeyMagicLinkSigner}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeyMagicLinkSignerTest {
+
+    /**
+     * {@code BASE64_URL_ALPHABET} the alphabet of the base64url encoding used by the tokens
+     */
+    private static final String BASE64_URL_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    /**
+     * {@code EMAIL} the email verified by the tokens
+     */
+    private static final String EMAIL = "user@localhost";
+
+    @Test
+    public void consumesTheTokenOnce() {
+        MonkeyMagicLinkSigner signer = createSigner();
+        String token = signer.sign(EMAIL, System.currentTimeMillis() + 60000);
+        assertTrue(signer.verify(token, EMAIL));
+        assertFalse(signer.verify(token, EMAIL), "A token cannot be consumed twice");
+    }
+
+    @Test
+    public void rejectsTheNonCanonicalSignatures() {
+        MonkeyMagicLinkSigner signer = createSigner();
+        String token = signer.sign(EMAIL, System.currentTimeMillis() + 60000);
+        char lastCharacter = token.charAt(token.length() - 1);
+        char alteredCharacter = BASE64_URL_ALPHABET.charAt(BASE64_URL_ALPHABET.indexOf(lastCharacter) ^ 1);
+        String alteredToken = token.substring(0, token.length() - 1) + alteredCharacter;
+        assertNull(signer.verify(alteredToken), "The altered encoding must be rejected before the original is consumed");
+        assertTrue(signer.verify(token, EMAIL));
+        assertNull(signer.verify(alteredToken), "The altered encoding must not replay the consumed token");
+    }
+
+    @Test
+    public void boundsTheValidityOfTheTokens() {
+        MonkeyMagicLinkSigner signer = createSigner();
+        assertThrows(IllegalArgumentException.class, () -> signer.sign(EMAIL, Long.MAX_VALUE));
+        String token = signer.sign(EMAIL, System.currentTimeMillis() + MAX_TOKEN_VALIDITY - 60000);
+        assertEquals(EMAIL, signer.verify(token));
+    }
+
+    /**
+     * Method to create a signer with the replay protection enabled
+     *
+     * @return the signer as {@link MonkeyMagicLinkSigner}
+     */
+    private static MonkeyMagicLinkSigner createSigner() {
+        MonkeyMagicLinkSigner signer = new MonkeyMagicLinkSigner("test_key",
+                "monkey-test-secret-of-32-bytes!!".getBytes(StandardCharsets.UTF_8));
+        signer.enableReplayProtection(100);
+        return signer;
+    }
+
+}
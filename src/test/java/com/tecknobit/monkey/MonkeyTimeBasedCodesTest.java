@@ -0,0 +1,61 @@
+package com.tecknobit.monkey;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static com.tecknobit.monkey.MonkeyVerifier.VerificationCodeType.NUMBERS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code MonkeyTimeBasedCodesTest} class is useful to test the codes derived and verified by the
+ * {@link MonkeyTimeBasedCodes}
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeyTimeBasedCodesTest {
+
+    /**
+     * {@code EMAIL} the email which receives the codes
+     */
+    private static final String EMAIL = "user@localhost";
+
+    @Test
+    public void rejectsTheUsedCodes() {
+        MonkeyTimeBasedCodes timeBasedCodes = createTimeBasedCodes();
+        String code = timeBasedCodes.generateCode(EMAIL);
+        assertTrue(timeBasedCodes.verifyCode(EMAIL, code));
+        assertFalse(timeBasedCodes.verifyCode(EMAIL, code), "A code cannot be verified twice");
+    }
+
+    @Test
+    public void verifiesTheCodeResentWithinTheSameTimeStep() {
+        MonkeyTimeBasedCodes timeBasedCodes = createTimeBasedCodes();
+        assertTrue(timeBasedCodes.verifyCode(EMAIL, timeBasedCodes.generateCode(EMAIL)));
+        String resentCode = timeBasedCodes.generateCode(EMAIL);
+        assertTrue(timeBasedCodes.verifyCode(EMAIL, resentCode), "A resent code must be verified once again");
+        assertFalse(timeBasedCodes.verifyCode(EMAIL, resentCode), "A resent code cannot be verified twice");
+    }
+
+    @Test
+    public void locksTheEmailAfterTheMaxFailedAttempts() {
+        MonkeyTimeBasedCodes timeBasedCodes = createTimeBasedCodes();
+        String code = timeBasedCodes.generateCode(EMAIL);
+        for (int j = 0; j < MonkeyVerifier.DEFAULT_MAX_FAILED_ATTEMPTS; j++)
+            assertFalse(timeBasedCodes.verifyCode(EMAIL, "wrong"));
+        assertFalse(timeBasedCodes.verifyCode(EMAIL, code), "A locked email cannot verify its code");
+    }
+
+    /**
+     * Method to create the time-based codes with the default limits of the {@link MonkeyVerifier}
+     *
+     * @return the time-based codes as {@link MonkeyTimeBasedCodes}
+     */
+    private static MonkeyTimeBasedCodes createTimeBasedCodes() {
+        return new MonkeyTimeBasedCodes("monkey-test-secret".getBytes(StandardCharsets.UTF_8), NUMBERS,
+                TimeUnit.HOURS.toMillis(1), MonkeyVerifier.DEFAULT_MAX_USED_CODES,
+                MonkeyVerifier.DEFAULT_MAX_FAILED_ATTEMPTS);
+    }
+
+}
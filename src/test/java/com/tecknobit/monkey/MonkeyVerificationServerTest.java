@@ -0,0 +1,117 @@
+package com.tecknobit.monkey;
+
+import com.tecknobit.monkey.MonkeySendResult.SendStatus;
+import org.junit.jupiter.api.Test;
+import org.simplejavamail.api.email.Email;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.tecknobit.monkey.MonkeyVerifier.KeepEmailValid.ONE_HOUR;
+import static com.tecknobit.monkey.MonkeyVerifier.VerificationCodeType.NUMBERS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The {@code MonkeyVerificationServerTest} class is useful to test the round trip between a
+ * {@link MonkeyVerificationClient} and a {@link MonkeyVerificationServer} listening on the loopback address
+ *
+ * @author N7ghtm4r3 - Tecknobit
+ */
+public class MonkeyVerificationServerTest {
+
+    /**
+     * {@code ACCESS_TOKEN} the access token shared by the server and the client
+     */
+    private static final String ACCESS_TOKEN = "monkey-test-token";
+
+    /**
+     * {@code CODE_PATTERN} the pattern of the verification code inside the body of the email sent
+     */
+    private static final Pattern CODE_PATTERN = Pattern.compile("code: (\\d+)");
+
+    @Test
+    public void sendsAndVerifiesThroughTheServer() throws Exception {
+        MonkeyInMemoryTransport transport = new MonkeyInMemoryTransport();
+        MonkeyVerifier verifier = new MonkeyVerifier(transport, NUMBERS, ONE_HOUR, "monkey@localhost");
+        try (MonkeyVerificationServer server = new MonkeyVerificationServer(verifier, 0, ACCESS_TOKEN)) {
+            MonkeyVerificationClient client = new MonkeyVerificationClient("http://localhost:" + server.getPort(),
+                    ACCESS_TOKEN);
+            List<MonkeySendResult> results = client.sendPlainVerificationEmail("Monkey", "Verify your email",
+                    "Your code: <verification_code>", "user@localhost", "not-an-address");
+            assertEquals(2, results.size());
+            assertEquals(SendStatus.DELIVERED, results.get(0).getStatus());
+            assertEquals(SendStatus.INVALID, results.get(1).getStatus());
+            Email email = transport.poll(1000);
+            assertNotNull(email);
+            Matcher code = CODE_PATTERN.matcher(email.getPlainText());
+            assertTrue(code.find());
+            assertFalse(client.verifyCodeSent("user@localhost", "wrong"));
+            assertTrue(client.verifyCodeSent("user@localhost", code.group(1)));
+            assertFalse(client.verifyCodeSent("user@localhost", code.group(1)), "A code cannot be verified twice");
+        }
+    }
+
+    @Test
+    public void locksTheEmailAfterTheMaxFailedAttempts() throws Exception {
+        MonkeyInMemoryTransport transport = new MonkeyInMemoryTransport();
+        MonkeyVerifier verifier = new MonkeyVerifier(transport, NUMBERS, ONE_HOUR, "monkey@localhost");
+        try (MonkeyVerificationServer server = new MonkeyVerificationServer(verifier, 0, ACCESS_TOKEN)) {
+            MonkeyVerificationClient client = new MonkeyVerificationClient("http://localhost:" + server.getPort(),
+                    ACCESS_TOKEN);
+            String code = sendCode(client, transport);
+            for (int j = 0; j < MonkeyVerifier.DEFAULT_MAX_FAILED_ATTEMPTS; j++)
+                assertFalse(client.verifyCodeSent("user@localhost", "wrong"));
+            assertFalse(client.verifyCodeSent("user@localhost", code), "A locked email cannot verify its code");
+            assertTrue(client.verifyCodeSent("user@localhost", sendCode(client, transport)),
+                    "A new verification email must unlock the email");
+        }
+    }
+
+    @Test
+    public void rejectsTheRequestsWithoutTheAccessToken() throws Exception {
+        MonkeyVerifier verifier = new MonkeyVerifier(new MonkeyInMemoryTransport(), NUMBERS, ONE_HOUR,
+                "monkey@localhost");
+        try (MonkeyVerificationServer server = new MonkeyVerificationServer(verifier, 0, ACCESS_TOKEN)) {
+            String serverUrl = "http://localhost:" + server.getPort();
+            IOException unauthenticated = assertThrows(IOException.class,
+                    () -> new MonkeyVerificationClient(serverUrl).verifyCodeSent("user@localhost", "123456"));
+            assertTrue(unauthenticated.getMessage().contains("401"));
+            assertThrows(IOException.class, () -> new MonkeyVerificationClient(serverUrl, "wrong-token")
+                    .verifyCodeSent("user@localhost", "123456"));
+        }
+    }
+
+    @Test
+    public void rejectsTheBodiesTooLong() throws Exception {
+        MonkeyVerifier verifier = new MonkeyVerifier(new MonkeyInMemoryTransport(), NUMBERS, ONE_HOUR,
+                "monkey@localhost");
+        try (MonkeyVerificationServer server = new MonkeyVerificationServer(verifier, 0, ACCESS_TOKEN)) {
+            MonkeyVerificationClient client = new MonkeyVerificationClient("http://localhost:" + server.getPort(),
+                    ACCESS_TOKEN);
+            String longCode = "0".repeat(MonkeyVerificationServer.MAX_REQUEST_BODY_SIZE);
+            assertThrows(IOException.class, () -> client.verifyCodeSent("user@localhost", longCode));
+            assertFalse(client.verifyCodeSent("user@localhost", "123456"));
+        }
+    }
+
+    /**
+     * Method to send a verification email through the server and to read the code it delivered
+     *
+     * @param client: the client of the server
+     * @param transport: the transport where the verification email is delivered
+     * @return the code delivered as {@link String}
+     */
+    private static String sendCode(MonkeyVerificationClient client,
+                                   MonkeyInMemoryTransport transport) throws Exception {
+        client.sendPlainVerificationEmail("Monkey", "Verify your email", "Your code: <verification_code>",
+                "user@localhost");
+        Email email = transport.poll(1000);
+        assertNotNull(email);
+        Matcher code = CODE_PATTERN.matcher(email.getPlainText());
+        assertTrue(code.find());
+        return code.group(1);
+    }
+
+}